@@ -0,0 +1,164 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter4.AVLTree;
+
+/**
+ * AVLTree与java.util.TreeSet(红黑树)的对比：批量插入、查找、删除以及从随机起点开始的100个元素的范围扫描，
+ * 以及有序输入下逐个插入与fromSorted、逐个插入与union的对比
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AVLTreeBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    @Param({ "SEQUENTIAL", "RANDOM", "CLUSTERED" })
+    private KeyDistribution distribution;
+
+    private Integer[] keys;
+    private static final int SCAN_LENGTH = 100;
+
+    private Integer[] lookups;
+    private Integer[] sortedKeys;
+    private AVLTree<Integer> tree;
+    //与tree大约一半元素相同的另一棵树，用于合并
+    private AVLTree<Integer> otherTree;
+    private TreeSet<Integer> treeSet;
+
+    @Setup
+    public void setup() {
+        keys = distribution.keys(size);
+        lookups = KeyDistribution.lookups(keys, size);
+        tree = avlTreeInsert();
+        treeSet = treeSetInsert();
+        sortedKeys = keys.clone();
+        Arrays.sort(sortedKeys);
+        otherTree = new AVLTree<Integer>();
+        for (Integer key : lookups) {
+            otherTree.insert(key);
+        }
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeInsert() {
+        AVLTree<Integer> result = new AVLTree<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public TreeSet<Integer> treeSetInsert() {
+        TreeSet<Integer> result = new TreeSet<Integer>();
+        for (Integer key : keys) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void avlTreeContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(tree.contains(key));
+        }
+    }
+
+    @Benchmark
+    public void treeSetContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(treeSet.contains(key));
+        }
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeInsertRemove() {
+        AVLTree<Integer> result = avlTreeInsert();
+        for (Integer key : keys) {
+            result.remove(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public TreeSet<Integer> treeSetInsertRemove() {
+        TreeSet<Integer> result = treeSetInsert();
+        for (Integer key : keys) {
+            result.remove(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void avlTreeRangeScan(Blackhole bh) {
+        for (int i = 0; i < 100; i++) {
+            Iterator<Integer> it = tree.range(lookups[i], Integer.MAX_VALUE).iterator();
+            for (int j = 0; j < SCAN_LENGTH && it.hasNext(); j++) {
+                bh.consume(it.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void treeSetRangeScan(Blackhole bh) {
+        for (int i = 0; i < 100; i++) {
+            Iterator<Integer> it = treeSet.subSet(lookups[i], true, Integer.MAX_VALUE, true).iterator();
+            for (int j = 0; j < SCAN_LENGTH && it.hasNext(); j++) {
+                bh.consume(it.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeSortedInsert() {
+        AVLTree<Integer> result = new AVLTree<Integer>();
+        for (Integer key : sortedKeys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeFromSorted() {
+        return AVLTree.fromSorted(sortedKeys);
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeInsertAll() {
+        AVLTree<Integer> result = AVLTree.fromSorted(sortedKeys);
+        for (Integer key : otherTree) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeUnion() {
+        return tree.union(otherTree);
+    }
+
+}
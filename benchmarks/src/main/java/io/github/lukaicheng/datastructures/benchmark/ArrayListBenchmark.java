@@ -0,0 +1,104 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter3.MyArrayList;
+
+/**
+ * MyArrayList与java.util.ArrayList的对比：追加、随机访问和迭代
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayListBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    private Integer[] values;
+    private int[] indexes;
+    private MyArrayList<Integer> myList;
+    private ArrayList<Integer> jdkList;
+
+    @Setup
+    public void setup() {
+        values = KeyDistribution.SEQUENTIAL.keys(size);
+        Random random = new Random(42);
+        indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = random.nextInt(size);
+        }
+        myList = new MyArrayList<Integer>();
+        jdkList = new ArrayList<Integer>();
+        for (Integer value : values) {
+            myList.add(value);
+            jdkList.add(value);
+        }
+    }
+
+    @Benchmark
+    public MyArrayList<Integer> myArrayListAppend() {
+        MyArrayList<Integer> list = new MyArrayList<Integer>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public ArrayList<Integer> jdkArrayListAppend() {
+        ArrayList<Integer> list = new ArrayList<Integer>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public void myArrayListGet(Blackhole bh) {
+        for (int index : indexes) {
+            bh.consume(myList.get(index));
+        }
+    }
+
+    @Benchmark
+    public void jdkArrayListGet(Blackhole bh) {
+        for (int index : indexes) {
+            bh.consume(jdkList.get(index));
+        }
+    }
+
+    @Benchmark
+    public void myArrayListIterate(Blackhole bh) {
+        for (Integer value : myList) {
+            bh.consume(value);
+        }
+    }
+
+    @Benchmark
+    public void jdkArrayListIterate(Blackhole bh) {
+        for (Integer value : jdkList) {
+            bh.consume(value);
+        }
+    }
+
+}
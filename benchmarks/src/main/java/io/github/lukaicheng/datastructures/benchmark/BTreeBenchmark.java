@@ -0,0 +1,90 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter4.AVLTree;
+import io.github.lukaicheng.datastructures.chapter4.BTree;
+
+/**
+ * 不同阶数的BTree与AVLTree的对比：批量插入和查找
+ *
+ * 使用-prof gc运行时，插入基准的gc.alloc.rate.norm除以size即为每个键的内存开销；
+ * 在Linux上使用-prof perfnorm运行可以得到每次操作的cache miss次数
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BTreeBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    @Param({ "SEQUENTIAL", "RANDOM" })
+    private KeyDistribution distribution;
+
+    @Param({ "16", "64", "256" })
+    private int order;
+
+    private Integer[] keys;
+    private Integer[] lookups;
+    private BTree<Integer> bTree;
+    private AVLTree<Integer> avlTree;
+
+    @Setup
+    public void setup() {
+        keys = distribution.keys(size);
+        lookups = KeyDistribution.lookups(keys, size);
+        bTree = bTreeInsert();
+        avlTree = avlTreeInsert();
+    }
+
+    @Benchmark
+    public BTree<Integer> bTreeInsert() {
+        BTree<Integer> result = new BTree<Integer>(order);
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeInsert() {
+        AVLTree<Integer> result = new AVLTree<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void bTreeContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(bTree.contains(key));
+        }
+    }
+
+    @Benchmark
+    public void avlTreeContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(avlTree.contains(key));
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter6.BinaryHeap;
+
+/**
+ * BinaryHeap与java.util.PriorityQueue的对比：逐个插入后全部取出，以及由数组直接建堆
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryHeapBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    @Param({ "SEQUENTIAL", "RANDOM", "CLUSTERED" })
+    private KeyDistribution distribution;
+
+    private Integer[] keys;
+
+    @Setup
+    public void setup() {
+        keys = distribution.keys(size);
+    }
+
+    @Benchmark
+    public void binaryHeapInsertDeleteMin(Blackhole bh) {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>();
+        for (Integer key : keys) {
+            heap.insert(key);
+        }
+        while (!heap.isEmpty()) {
+            bh.consume(heap.deleteMin());
+        }
+    }
+
+    @Benchmark
+    public void priorityQueueOfferPoll(Blackhole bh) {
+        PriorityQueue<Integer> queue = new PriorityQueue<Integer>();
+        for (Integer key : keys) {
+            queue.offer(key);
+        }
+        while (!queue.isEmpty()) {
+            bh.consume(queue.poll());
+        }
+    }
+
+    @Benchmark
+    public BinaryHeap<Integer> binaryHeapBuild() {
+        return new BinaryHeap<Integer>(keys);
+    }
+
+    @Benchmark
+    public PriorityQueue<Integer> priorityQueueBuild() {
+        return new PriorityQueue<Integer>(Arrays.asList(keys));
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter4.BinarySearchTree;
+
+/**
+ * BinarySearchTree与java.util.TreeSet的对比：批量插入和查找
+ *
+ * BinarySearchTree不做平衡，顺序键会让树退化成链表，插入n个键需要O(n^2)时间，因此只测试非顺序的分布
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinarySearchTreeBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    @Param({ "RANDOM", "CLUSTERED" })
+    private KeyDistribution distribution;
+
+    private Integer[] keys;
+    private Integer[] lookups;
+    private BinarySearchTree<Integer> tree;
+    private TreeSet<Integer> treeSet;
+
+    @Setup
+    public void setup() {
+        keys = distribution.keys(size);
+        lookups = KeyDistribution.lookups(keys, size);
+        tree = binarySearchTreeInsert();
+        treeSet = treeSetInsert();
+    }
+
+    @Benchmark
+    public BinarySearchTree<Integer> binarySearchTreeInsert() {
+        BinarySearchTree<Integer> result = new BinarySearchTree<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public TreeSet<Integer> treeSetInsert() {
+        TreeSet<Integer> result = new TreeSet<Integer>();
+        for (Integer key : keys) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void binarySearchTreeContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(tree.contains(key));
+        }
+    }
+
+    @Benchmark
+    public void treeSetContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(treeSet.contains(key));
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.lukaicheng.datastructures.chapter5.ConcurrentSeparateChainingHashTable;
+import io.github.lukaicheng.datastructures.chapter5.SeparateChainingHashTable;
+
+/**
+ * 多个线程同时对同一个散列表执行查找、插入和删除，按不同的读写比例对比ConcurrentSeparateChainingHashTable、
+ * 加全局锁的SeparateChainingHashTable以及ConcurrentHashMap.newKeySet()
+ *
+ * 键空间为[0, size * 2)，预先插入其中一半，写操作随机选择插入或删除，使表的大小保持稳定。
+ * 默认使用8个线程，可以通过-t参数调整，或按线程数扫描：
+ * java -cp benchmarks/target/benchmarks.jar io.github.lukaicheng.datastructures.benchmark.ThreadScalingRunner ConcurrentHashTableBenchmark
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ConcurrentHashTableBenchmark {
+
+    /**
+     * 使用全局锁包装的SeparateChainingHashTable，即引入并发散列表之前的做法
+     */
+    static class SynchronizedHashTable<T> {
+
+        private final SeparateChainingHashTable<T> table = new SeparateChainingHashTable<T>();
+
+        synchronized boolean contains(T t) {
+            return table.contains(t);
+        }
+
+        synchronized void insert(T t) {
+            table.insert(t);
+        }
+
+        synchronized void remove(T t) {
+            table.remove(t);
+        }
+    }
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    //读操作(contains)所占的百分比
+    @Param({"50", "90", "99"})
+    private int readPercent;
+
+    private Integer[] keys;
+    private ConcurrentSeparateChainingHashTable<Integer> concurrentTable;
+    private SynchronizedHashTable<Integer> synchronizedTable;
+    private Set<Integer> concurrentHashMap;
+
+    @Setup
+    public void setup() {
+        keys = new Integer[size * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        concurrentTable = new ConcurrentSeparateChainingHashTable<Integer>();
+        synchronizedTable = new SynchronizedHashTable<Integer>();
+        concurrentHashMap = ConcurrentHashMap.newKeySet();
+        for (Integer key : KeyDistribution.RANDOM.keys(size)) {
+            //RANDOM生成的键位于[0, size * 2)内
+            concurrentTable.insert(key);
+            synchronizedTable.insert(key);
+            concurrentHashMap.add(key);
+        }
+    }
+
+    @Benchmark
+    public boolean concurrentTable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(keys.length)];
+        int op = random.nextInt(100);
+        if (op < readPercent) {
+            return concurrentTable.contains(key);
+        }
+        return (op & 1) == 0 ? concurrentTable.insert(key) : concurrentTable.remove(key);
+    }
+
+    @Benchmark
+    public boolean synchronizedTable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(keys.length)];
+        int op = random.nextInt(100);
+        if (op < readPercent) {
+            return synchronizedTable.contains(key);
+        }
+        if ((op & 1) == 0) {
+            synchronizedTable.insert(key);
+        } else {
+            synchronizedTable.remove(key);
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean concurrentHashMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(keys.length)];
+        int op = random.nextInt(100);
+        if (op < readPercent) {
+            return concurrentHashMap.contains(key);
+        }
+        return (op & 1) == 0 ? concurrentHashMap.add(key) : concurrentHashMap.remove(key);
+    }
+
+}
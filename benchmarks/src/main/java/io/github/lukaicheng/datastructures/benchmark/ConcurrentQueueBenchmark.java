@@ -0,0 +1,100 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.lukaicheng.datastructures.chapter3.MyConcurrentLinkedDeque;
+import io.github.lukaicheng.datastructures.chapter3.MyConcurrentLinkedQueue;
+import io.github.lukaicheng.datastructures.chapter3.MyLinkedList;
+
+/**
+ * 16个线程同时对同一个队列执行入队和出队，对比无锁队列、无锁双端队列与加全局锁的MyLinkedList。
+ * BothEnds系列在头部插入、尾部取出，考察双端队列另一端的操作
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class ConcurrentQueueBenchmark {
+
+    /**
+     * 使用全局锁包装的MyLinkedList，即引入无锁队列之前的做法
+     */
+    static class SynchronizedLinkedQueue<T> {
+
+        private final MyLinkedList<T> list = new MyLinkedList<T>();
+
+        synchronized boolean offer(T t) {
+            return list.add(t);
+        }
+
+        synchronized T poll() {
+            return list.isEmpty() ? null : list.remove(0);
+        }
+
+        synchronized void offerFirst(T t) {
+            list.add(0, t);
+        }
+
+        synchronized T pollLast() {
+            return list.isEmpty() ? null : list.remove(list.size() - 1);
+        }
+    }
+
+    private MyConcurrentLinkedQueue<Integer> lockFreeQueue;
+    private MyConcurrentLinkedDeque<Integer> lockFreeDeque;
+    private SynchronizedLinkedQueue<Integer> synchronizedQueue;
+
+    @Setup
+    public void setup() {
+        lockFreeQueue = new MyConcurrentLinkedQueue<Integer>();
+        lockFreeDeque = new MyConcurrentLinkedDeque<Integer>();
+        synchronizedQueue = new SynchronizedLinkedQueue<Integer>();
+    }
+
+    @Benchmark
+    public Integer lockFreeOfferPoll() {
+        lockFreeQueue.offer(1);
+        return lockFreeQueue.poll();
+    }
+
+    @Benchmark
+    public Integer synchronizedOfferPoll() {
+        synchronizedQueue.offer(1);
+        return synchronizedQueue.poll();
+    }
+
+    @Benchmark
+    public Integer lockFreeDequeOfferPoll() {
+        lockFreeDeque.offer(1);
+        return lockFreeDeque.poll();
+    }
+
+    @Benchmark
+    public Integer lockFreeDequeBothEnds() {
+        lockFreeDeque.offerFirst(1);
+        return lockFreeDeque.pollLast();
+    }
+
+    @Benchmark
+    public Integer synchronizedBothEnds() {
+        synchronizedQueue.offerFirst(1);
+        return synchronizedQueue.pollLast();
+    }
+
+}
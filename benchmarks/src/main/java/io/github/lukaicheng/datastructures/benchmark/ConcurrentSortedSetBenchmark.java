@@ -0,0 +1,111 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.lukaicheng.datastructures.chapter4.AVLTree;
+import io.github.lukaicheng.datastructures.chapter4.ConcurrentLazySkipList;
+
+/**
+ * 多个线程同时对同一个有序集合执行查找、插入和删除，按不同的读写比例对比懒惰跳表与加全局锁的AVLTree
+ *
+ * 键空间为[0, size * 2)，预先插入其中一半，写操作随机选择插入或删除，使集合大小保持稳定。
+ * 默认使用8个线程，可以通过-t参数调整，或使用ThreadScalingRunner按线程数扫描
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ConcurrentSortedSetBenchmark {
+
+    /**
+     * 使用全局锁包装的AVLTree，即引入并发跳表之前的做法
+     */
+    static class SynchronizedAVLTree<T extends Comparable<? super T>> {
+
+        private final AVLTree<T> tree = new AVLTree<T>();
+
+        synchronized boolean contains(T t) {
+            return tree.contains(t);
+        }
+
+        synchronized void insert(T t) {
+            tree.insert(t);
+        }
+
+        synchronized void remove(T t) {
+            tree.remove(t);
+        }
+    }
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    //读操作(contains)所占的百分比
+    @Param({"50", "90", "99"})
+    private int readPercent;
+
+    private Integer[] keys;
+    private ConcurrentLazySkipList<Integer> skipList;
+    private SynchronizedAVLTree<Integer> synchronizedTree;
+
+    @Setup
+    public void setup() {
+        keys = new Integer[size * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        skipList = new ConcurrentLazySkipList<Integer>();
+        synchronizedTree = new SynchronizedAVLTree<Integer>();
+        for (Integer key : KeyDistribution.RANDOM.keys(size)) {
+            //RANDOM生成的键位于[0, size * 2)内
+            skipList.insert(key);
+            synchronizedTree.insert(key);
+        }
+    }
+
+    @Benchmark
+    public boolean skipList() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(keys.length)];
+        int op = random.nextInt(100);
+        if (op < readPercent) {
+            return skipList.contains(key);
+        }
+        return (op & 1) == 0 ? skipList.insert(key) : skipList.remove(key);
+    }
+
+    @Benchmark
+    public boolean synchronizedAVLTree() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(keys.length)];
+        int op = random.nextInt(100);
+        if (op < readPercent) {
+            return synchronizedTree.contains(key);
+        }
+        if ((op & 1) == 0) {
+            synchronizedTree.insert(key);
+        } else {
+            synchronizedTree.remove(key);
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,130 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.lukaicheng.datastructures.chapter4.DirectorySizeIndex;
+import io.github.lukaicheng.datastructures.chapter4.ParallelDirectoryWalker;
+
+/**
+ * 统计一棵临时目录树(3层、每层10个子目录、每个目录20个文件)的总大小：
+ * 原FileListDemo中基于File.listFiles的递归统计对比ParallelDirectoryWalker，以及在DirectorySizeIndex中直接查询
+ *
+ * 结果受操作系统的目录缓存影响很大，这里测量的是缓存命中时的CPU和系统调用开销
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectoryWalkBenchmark {
+
+    private static final int FANOUT = 10;
+    private static final int DEPTH = 3;
+    private static final int FILES_PER_DIRECTORY = 20;
+
+    @Param({ "1", "4" })
+    private int parallelism;
+
+    private Path root;
+    private DirectorySizeIndex index;
+
+    /**
+     * 只统计大小、不打印任何内容的回调
+     */
+    static class NoOpVisitor implements ParallelDirectoryWalker.Visitor {
+
+        public void visitFile(Path file, BasicFileAttributes attrs, int depth) {
+        }
+
+        public void directoryTotal(Path dir, long totalSize, int depth) {
+        }
+
+        public void visitFailed(Path path, IOException e) {
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("directory-walk");
+        populate(root, DEPTH);
+        index = DirectorySizeIndex.build(root);
+    }
+
+    private static void populate(Path dir, int depth) throws IOException {
+        for (int i = 0; i < FILES_PER_DIRECTORY; i++) {
+            Files.write(dir.resolve("file" + i), new byte[i]);
+        }
+        if (depth > 0) {
+            for (int i = 0; i < FANOUT; i++) {
+                populate(Files.createDirectory(dir.resolve("dir" + i)), depth - 1);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @Benchmark
+    public long recursiveListFiles() {
+        return listAndSum(root.toFile());
+    }
+
+    private static long listAndSum(File file) {
+        long totalSize = 0;
+        if (file.isDirectory()) {
+            for (File childFile : file.listFiles()) {
+                totalSize += listAndSum(childFile);
+            }
+        } else {
+            totalSize += file.length();
+        }
+        return totalSize;
+    }
+
+    @Benchmark
+    public long parallelWalker() {
+        return new ParallelDirectoryWalker(parallelism).walk(root, new NoOpVisitor());
+    }
+
+    @Benchmark
+    public long indexQuery() {
+        return index.size(root);
+    }
+
+}
@@ -0,0 +1,117 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter3.RecordCodec;
+import io.github.lukaicheng.datastructures.chapter4.AVLTree;
+import io.github.lukaicheng.datastructures.chapter4.DiskBPlusTree;
+
+/**
+ * DiskBPlusTree与AVLTree的对比：查找，以及"重启"的代价，即重新打开索引文件与重新逐个插入构建AVLTree
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiskBPlusTreeBenchmark {
+
+    static class IntCodec implements RecordCodec<Integer> {
+
+        public int recordSize() {
+            return 4;
+        }
+
+        public void write(ByteBuffer buffer, int offset, Integer t) {
+            buffer.putInt(offset, t);
+        }
+
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    }
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    private Integer[] keys;
+    private Integer[] lookups;
+    private Path directory;
+    private Path file;
+    private DiskBPlusTree<Integer> diskTree;
+    private AVLTree<Integer> avlTree;
+
+    @Setup
+    public void setup() throws IOException {
+        keys = KeyDistribution.RANDOM.keys(size);
+        lookups = KeyDistribution.lookups(keys, size);
+        directory = Files.createTempDirectory("disk-bplus-tree");
+        file = directory.resolve("index.db");
+        diskTree = DiskBPlusTree.open(file, new IntCodec());
+        for (Integer key : keys) {
+            diskTree.insert(key);
+        }
+        diskTree.checkpoint();
+        avlTree = avlTreeRebuild();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        diskTree.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory.resolve("index.db-journal"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void diskTreeContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(diskTree.contains(key));
+        }
+    }
+
+    @Benchmark
+    public void avlTreeContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(avlTree.contains(key));
+        }
+    }
+
+    @Benchmark
+    public int diskTreeReopen() throws IOException {
+        DiskBPlusTree<Integer> reopened = DiskBPlusTree.open(file, new IntCodec());
+        int result = reopened.size();
+        reopened.close();
+        return result;
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeRebuild() {
+        AVLTree<Integer> result = new AVLTree<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,94 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.lukaicheng.datastructures.chapter3.MyArrayList;
+import io.github.lukaicheng.datastructures.chapter3.MyGapArrayList;
+
+/**
+ * 局部编辑场景：编辑位置在列表中间附近随机游走，交替进行插入和删除，列表长度保持不变
+ *
+ * MyGapArrayList只需要移动与上一次编辑位置之间的少量元素，而MyArrayList和ArrayList每次都要移动编辑位置之后的全部元素
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GapArrayListBenchmark {
+
+    private static final int EDITS = 1024;
+
+    @Param({ "10000", "1000000" })
+    private int size;
+
+    //每次编辑的位置，相邻两次编辑最多相差8个位置
+    private int[] positions;
+    private MyGapArrayList<Integer> gapList;
+    private MyArrayList<Integer> myList;
+    private ArrayList<Integer> jdkList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        positions = new int[EDITS];
+        int cursor = size / 2;
+        for (int i = 0; i < EDITS; i++) {
+            cursor = Math.max(0, Math.min(size - 1, cursor + random.nextInt(17) - 8));
+            positions[i] = cursor;
+        }
+        gapList = new MyGapArrayList<Integer>();
+        myList = new MyArrayList<Integer>();
+        jdkList = new ArrayList<Integer>();
+        for (Integer value : KeyDistribution.SEQUENTIAL.keys(size)) {
+            gapList.add(value);
+            myList.add(value);
+            jdkList.add(value);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EDITS)
+    public void gapArrayListLocalizedEdits() {
+        for (int i = 0; i < EDITS; i += 2) {
+            gapList.add(positions[i], i);
+            gapList.remove(positions[i + 1]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EDITS)
+    public void myArrayListLocalizedEdits() {
+        for (int i = 0; i < EDITS; i += 2) {
+            myList.add(positions[i], i);
+            myList.remove(positions[i + 1]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EDITS)
+    public void jdkArrayListLocalizedEdits() {
+        for (int i = 0; i < EDITS; i += 2) {
+            jdkList.add(positions[i], i);
+            jdkList.remove(positions[i + 1]);
+        }
+    }
+
+}
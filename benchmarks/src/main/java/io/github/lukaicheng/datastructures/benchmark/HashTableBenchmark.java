@@ -0,0 +1,136 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter5.QuadraticProbingHashTable;
+import io.github.lukaicheng.datastructures.chapter5.SeparateChainingHashTable;
+
+/**
+ * 分离链接散列表、平方探测散列表与java.util.HashSet的对比：批量插入、查找，以及反复删除再插入(churn)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashTableBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    @Param({ "SEQUENTIAL", "RANDOM", "CLUSTERED" })
+    private KeyDistribution distribution;
+
+    private Integer[] keys;
+    private Integer[] lookups;
+    //与keys不相交的另一组键，churn时与keys轮流换入换出
+    private Integer[] replacements;
+    private SeparateChainingHashTable<Integer> separateChaining;
+    private QuadraticProbingHashTable<Integer> quadraticProbing;
+    private HashSet<Integer> hashSet;
+
+    @Setup
+    public void setup() {
+        keys = distribution.keys(size);
+        lookups = KeyDistribution.lookups(keys, size);
+        replacements = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            replacements[i] = keys[i] + Integer.MIN_VALUE;
+        }
+        separateChaining = separateChainingInsert();
+        quadraticProbing = quadraticProbingInsert();
+        hashSet = hashSetInsert();
+    }
+
+    @Benchmark
+    public SeparateChainingHashTable<Integer> separateChainingInsert() {
+        SeparateChainingHashTable<Integer> result = new SeparateChainingHashTable<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public QuadraticProbingHashTable<Integer> quadraticProbingInsert() {
+        QuadraticProbingHashTable<Integer> result = new QuadraticProbingHashTable<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public HashSet<Integer> hashSetInsert() {
+        HashSet<Integer> result = new HashSet<Integer>();
+        for (Integer key : keys) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void separateChainingContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(separateChaining.contains(key));
+        }
+    }
+
+    @Benchmark
+    public void quadraticProbingContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(quadraticProbing.contains(key));
+        }
+    }
+
+    @Benchmark
+    public void hashSetContains(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(hashSet.contains(key));
+        }
+    }
+
+    @Benchmark
+    public int quadraticProbingChurn() {
+        //每次调用结束时表中的元素与调用前相同，但期间产生了2 * size个墓碑
+        for (int i = 0; i < size; i++) {
+            quadraticProbing.remove(keys[i]);
+            quadraticProbing.insert(replacements[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            quadraticProbing.remove(replacements[i]);
+            quadraticProbing.insert(keys[i]);
+        }
+        return quadraticProbing.size();
+    }
+
+    @Benchmark
+    public int hashSetChurn() {
+        for (int i = 0; i < size; i++) {
+            hashSet.remove(keys[i]);
+            hashSet.add(replacements[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            hashSet.remove(replacements[i]);
+            hashSet.add(keys[i]);
+        }
+        return hashSet.size();
+    }
+
+}
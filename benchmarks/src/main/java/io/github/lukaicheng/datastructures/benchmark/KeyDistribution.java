@@ -0,0 +1,93 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.Random;
+
+/**
+ * 基准测试使用的键分布，所有分布生成的键都互不相同，便于比较不同结构在相同数据下的表现
+ *
+ */
+public enum KeyDistribution {
+
+    /**
+     * 0, 1, 2, ... 递增序列，会让不平衡的二叉查找树退化成链表
+     */
+    SEQUENTIAL {
+        @Override
+        Integer[] generate(int size, Random random) {
+            Integer[] keys = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = i;
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * 0 ~ size*2 之间随机打乱的键
+     */
+    RANDOM {
+        @Override
+        Integer[] generate(int size, Random random) {
+            Integer[] keys = SEQUENTIAL.generate(size, random);
+            for (int i = 0; i < size; i++) {
+                keys[i] = keys[i] * 2;
+            }
+            shuffle(keys, random);
+            return keys;
+        }
+    },
+
+    /**
+     * 若干段连续递增的键，段与段之间随机排列，模拟局部有序的真实数据
+     */
+    CLUSTERED {
+        @Override
+        Integer[] generate(int size, Random random) {
+            int runLength = 64;
+            int runs = (size + runLength - 1) / runLength;
+            Integer[] runOrder = SEQUENTIAL.generate(runs, random);
+            shuffle(runOrder, random);
+            Integer[] keys = new Integer[size];
+            int k = 0;
+            for (int r = 0; r < runs && k < size; r++) {
+                int base = runOrder[r] * runLength * 4;
+                for (int i = 0; i < runLength && k < size; i++) {
+                    keys[k++] = base + i;
+                }
+            }
+            return keys;
+        }
+    };
+
+    abstract Integer[] generate(int size, Random random);
+
+    /**
+     * 使用固定种子生成键，保证每次运行的数据一致
+     */
+    public Integer[] keys(int size) {
+        return generate(size, new Random(42));
+    }
+
+    /**
+     * 生成用于查找的键，大约一半命中已插入的键
+     */
+    public static Integer[] lookups(Integer[] keys, int count) {
+        Random random = new Random(7);
+        Integer[] lookups = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            Integer key = keys[random.nextInt(keys.length)];
+            lookups[i] = random.nextBoolean() ? key : Integer.valueOf(key + 1);
+        }
+        return lookups;
+    }
+
+    private static void shuffle(Integer[] keys, Random random) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter3.MyLinkedList;
+
+/**
+ * MyLinkedList与java.util.LinkedList的对比：追加和迭代
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkedListBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    private Integer[] values;
+    private MyLinkedList<Integer> myList;
+    private LinkedList<Integer> jdkList;
+
+    @Setup
+    public void setup() {
+        values = KeyDistribution.SEQUENTIAL.keys(size);
+        myList = new MyLinkedList<Integer>();
+        jdkList = new LinkedList<Integer>();
+        for (Integer value : values) {
+            myList.add(value);
+            jdkList.add(value);
+        }
+    }
+
+    @Benchmark
+    public MyLinkedList<Integer> myLinkedListAppend() {
+        MyLinkedList<Integer> list = new MyLinkedList<Integer>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public LinkedList<Integer> jdkLinkedListAppend() {
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public void myLinkedListIterate(Blackhole bh) {
+        for (Integer value : myList) {
+            bh.consume(value);
+        }
+    }
+
+    @Benchmark
+    public void jdkLinkedListIterate(Blackhole bh) {
+        for (Integer value : jdkList) {
+            bh.consume(value);
+        }
+    }
+
+}
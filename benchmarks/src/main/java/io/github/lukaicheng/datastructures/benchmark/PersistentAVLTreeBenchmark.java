@@ -0,0 +1,81 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.lukaicheng.datastructures.chapter4.AVLTree;
+import io.github.lukaicheng.datastructures.chapter4.PersistentAVLTree;
+
+/**
+ * 每次修改后都取一次快照：PersistentAVLTree的O(1)快照对比复制整棵AVLTree，以及两者单纯插入的代价
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentAVLTreeBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    private Integer[] keys;
+    private AVLTree<Integer> tree;
+    private PersistentAVLTree<Integer> persistentTree;
+    private int next;
+
+    @Setup
+    public void setup() {
+        keys = KeyDistribution.RANDOM.keys(size);
+        tree = avlTreeInsert();
+        persistentTree = persistentTreeInsert();
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeInsert() {
+        AVLTree<Integer> result = new AVLTree<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public PersistentAVLTree<Integer> persistentTreeInsert() {
+        PersistentAVLTree<Integer> result = new PersistentAVLTree<Integer>();
+        for (Integer key : keys) {
+            result.insert(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeUpdateAndCopy() {
+        Integer key = keys[next++ % keys.length];
+        tree.remove(key);
+        tree.insert(key);
+        return AVLTree.fromSorted(tree.iterator());
+    }
+
+    @Benchmark
+    public PersistentAVLTree<Integer> persistentTreeUpdateAndSnapshot() {
+        Integer key = keys[next++ % keys.length];
+        persistentTree.remove(key);
+        persistentTree.insert(key);
+        return persistentTree.snapshot();
+    }
+
+}
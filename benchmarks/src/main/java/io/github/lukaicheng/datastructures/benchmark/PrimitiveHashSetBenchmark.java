@@ -0,0 +1,109 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter5.LongHashSet;
+import io.github.lukaicheng.datastructures.chapter5.QuadraticProbingHashTable;
+
+/**
+ * long类型id的去重：LongHashSet对比装箱的QuadraticProbingHashTable<Long>与java.util.HashSet<Long>
+ *
+ * 键为随机的64位id，其中约一半重复；使用-prof gc运行可以看到LongHashSet的查找不分配任何内存
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveHashSetBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    private long[] ids;
+    private LongHashSet longHashSet;
+    private QuadraticProbingHashTable<Long> quadraticProbing;
+    private HashSet<Long> hashSet;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        long[] distinct = new long[size / 2];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = random.nextLong();
+        }
+        ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = distinct[random.nextInt(distinct.length)];
+        }
+        longHashSet = longHashSetAdd();
+        quadraticProbing = quadraticProbingInsert();
+        hashSet = hashSetAdd();
+    }
+
+    @Benchmark
+    public LongHashSet longHashSetAdd() {
+        LongHashSet result = new LongHashSet();
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public QuadraticProbingHashTable<Long> quadraticProbingInsert() {
+        QuadraticProbingHashTable<Long> result = new QuadraticProbingHashTable<Long>();
+        for (long id : ids) {
+            result.insert(id);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public HashSet<Long> hashSetAdd() {
+        HashSet<Long> result = new HashSet<Long>();
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void longHashSetContains(Blackhole bh) {
+        for (long id : ids) {
+            bh.consume(longHashSet.contains(id + 1));
+        }
+    }
+
+    @Benchmark
+    public void quadraticProbingContains(Blackhole bh) {
+        for (long id : ids) {
+            bh.consume(quadraticProbing.contains(id + 1));
+        }
+    }
+
+    @Benchmark
+    public void hashSetContains(Blackhole bh) {
+        for (long id : ids) {
+            bh.consume(hashSet.contains(id + 1));
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.lukaicheng.datastructures.chapter5.QuadraticProbingHashTable;
+import io.github.lukaicheng.datastructures.chapter5.SeparateChainingHashTable;
+
+/**
+ * 一次性重新散列与渐进式重新散列的单次插入延迟
+ *
+ * 每次调用插入一个新元素，表中元素达到size个后换一张空表重新开始，因此测量期间会反复经历从小到大的每一次扩容。
+ * SampleTime模式下关注输出中的p0.999、p0.9999和p1.00(最大值)：一次性重新散列的最大值随size线性增长，渐进式则基本不变
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RehashLatencyBenchmark {
+
+    @Param({ "100000", "1000000" })
+    private int size;
+
+    @Param({ "false", "true" })
+    private boolean incremental;
+
+    private Integer[] keys;
+    private int next;
+    private SeparateChainingHashTable<Integer> separateChaining;
+    private QuadraticProbingHashTable<Integer> quadraticProbing;
+
+    @Setup
+    public void setup() {
+        keys = KeyDistribution.RANDOM.keys(size);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        next = 0;
+        separateChaining = new SeparateChainingHashTable<Integer>(101, incremental);
+        quadraticProbing = new QuadraticProbingHashTable<Integer>(11, incremental);
+    }
+
+    @Benchmark
+    public SeparateChainingHashTable<Integer> separateChainingInsert() {
+        if (next == size) {
+            next = 0;
+            separateChaining = new SeparateChainingHashTable<Integer>(101, incremental);
+        }
+        separateChaining.insert(keys[next++]);
+        return separateChaining;
+    }
+
+    @Benchmark
+    public QuadraticProbingHashTable<Integer> quadraticProbingInsert() {
+        if (next == size) {
+            next = 0;
+            quadraticProbing = new QuadraticProbingHashTable<Integer>(11, incremental);
+        }
+        quadraticProbing.insert(keys[next++]);
+        return quadraticProbing;
+    }
+
+}
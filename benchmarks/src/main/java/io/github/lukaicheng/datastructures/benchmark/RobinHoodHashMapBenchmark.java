@@ -0,0 +1,104 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.lukaicheng.datastructures.chapter5.RobinHoodHashMap;
+
+/**
+ * RobinHoodHashMap与java.util.HashMap的对比：批量插入、查找以及插入后全部删除
+ *
+ * 使用-prof gc运行时，插入基准的gc.alloc.rate.norm除以size即为每个映射的内存开销
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RobinHoodHashMapBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int size;
+
+    @Param({ "SEQUENTIAL", "RANDOM", "CLUSTERED" })
+    private KeyDistribution distribution;
+
+    private Integer[] keys;
+    private Integer[] lookups;
+    private RobinHoodHashMap<Integer, Integer> robinHoodMap;
+    private HashMap<Integer, Integer> hashMap;
+
+    @Setup
+    public void setup() {
+        keys = distribution.keys(size);
+        lookups = KeyDistribution.lookups(keys, size);
+        robinHoodMap = robinHoodPut();
+        hashMap = hashMapPut();
+    }
+
+    @Benchmark
+    public RobinHoodHashMap<Integer, Integer> robinHoodPut() {
+        RobinHoodHashMap<Integer, Integer> result = new RobinHoodHashMap<Integer, Integer>();
+        for (Integer key : keys) {
+            result.put(key, key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> hashMapPut() {
+        HashMap<Integer, Integer> result = new HashMap<Integer, Integer>();
+        for (Integer key : keys) {
+            result.put(key, key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void robinHoodGet(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(robinHoodMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void hashMapGet(Blackhole bh) {
+        for (Integer key : lookups) {
+            bh.consume(hashMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public RobinHoodHashMap<Integer, Integer> robinHoodPutRemove() {
+        RobinHoodHashMap<Integer, Integer> result = robinHoodPut();
+        for (Integer key : keys) {
+            result.remove(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> hashMapPutRemove() {
+        HashMap<Integer, Integer> result = hashMapPut();
+        for (Integer key : keys) {
+            result.remove(key);
+        }
+        return result;
+    }
+
+}
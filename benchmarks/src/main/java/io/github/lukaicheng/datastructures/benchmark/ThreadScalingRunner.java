@@ -0,0 +1,35 @@
+package io.github.lukaicheng.datastructures.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 按线程数1, 2, 4, ... 直到处理器核数依次运行同一组多线程基准测试，观察吞吐量随线程数的伸缩情况
+ *
+ * 每个线程数的结果单独写入jmh-threads-N.json，用法：
+ * java -cp benchmarks/target/benchmarks.jar io.github.lukaicheng.datastructures.benchmark.ThreadScalingRunner [正则] [最大线程数]
+ *
+ */
+public class ThreadScalingRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ConcurrentSortedSetBenchmark.class.getSimpleName();
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-threads-" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,300 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 基于内存映射文件的MyArrayList，用于存放无法舒适地放入Java堆中的海量定长记录
+ *
+ * 元素经由RecordCodec编码后直接存放在映射文件中，不占用堆空间也不产生GC压力。
+ * 文件头记录了元素个数，重新打开已有文件时只需重新映射，不需要拷贝任何数据。
+ *
+ * 文件布局：[magic:int][recordSize:int][size:int][reserved:int][record 0][record 1]...
+ *
+ * 单个MappedByteBuffer最多只能映射2GB，因此记录区被切分成若干个region，每个region容纳2的幂次条记录，
+ * 只有最后一个region可能未被完全映射，扩容时只需重新映射最后一个region并追加新的region
+ *
+ */
+public class MappedArrayList<T> implements Iterable<T>, Closeable {
+
+    private static final int MAGIC = 0x4D41524C;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE_OFFSET = 4;
+    private static final int SIZE_OFFSET = 8;
+    //默认记录容量
+    private static final int DEFAULT_CAPACITY = 16;
+    //单个region映射的最大字节数
+    private static final int MAX_REGION_BYTES = 1 << 30;
+    //移动记录时每次批量搬运的最大字节数
+    private static final int SCRATCH_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final RecordCodec<T> codec;
+    private final int recordSize;
+    //每个region容纳的记录数为2^regionShift，借助位运算即可定位记录所在的region
+    private final int regionShift;
+    private final int regionMask;
+    //每个region的字节数，记录不会跨越region边界
+    private final int regionBytes;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> regions = new ArrayList<MappedByteBuffer>();
+    //移动记录时使用的中转缓冲区，容纳整数条记录
+    private final byte[] scratch;
+    //已映射的记录容量
+    private long capacity;
+    //内部实际的元素个数
+    private int size;
+
+    private MappedArrayList(FileChannel channel, RecordCodec<T> codec) throws IOException {
+        this.channel = channel;
+        this.codec = codec;
+        this.recordSize = codec.recordSize();
+        if (recordSize <= 0 || recordSize > MAX_REGION_BYTES) {
+            throw new IllegalArgumentException("Illegal record size: " + recordSize);
+        }
+        this.regionShift = 31 - Integer.numberOfLeadingZeros(MAX_REGION_BYTES / recordSize);
+        this.regionMask = (1 << regionShift) - 1;
+        this.regionBytes = recordSize << regionShift;
+        this.scratch = new byte[Math.max(1, SCRATCH_BYTES / recordSize) * recordSize];
+        boolean isNew = channel.size() == 0;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (isNew) {
+            header.putInt(0, MAGIC);
+            header.putInt(RECORD_SIZE_OFFSET, recordSize);
+            header.putInt(SIZE_OFFSET, 0);
+            ensureCapacity(DEFAULT_CAPACITY);
+        } else {
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a MappedArrayList file");
+            }
+            if (header.getInt(RECORD_SIZE_OFFSET) != recordSize) {
+                throw new IOException("Record size mismatch: file uses " + header.getInt(RECORD_SIZE_OFFSET)
+                        + " bytes, codec uses " + recordSize + " bytes");
+            }
+            size = header.getInt(SIZE_OFFSET);
+            //直接映射文件中已有的全部记录，无需任何拷贝
+            ensureCapacity(Math.max((channel.size() - HEADER_SIZE) / recordSize, size));
+        }
+    }
+
+    /**
+     * 打开或创建映射文件，文件已存在时其recordSize必须与codec一致
+     */
+    public static <T> MappedArrayList<T> open(Path file, RecordCodec<T> codec) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new MappedArrayList<T>(channel, codec);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 只重置元素个数，已经映射的文件空间会被保留下来供后续添加使用
+     */
+    public void clear() {
+        setSize(0);
+    }
+
+    public boolean add(T t) {
+        ensureCapacity((long) size() + 1);
+        codec.write(region(size()), offset(size()), t);
+        setSize(size() + 1);
+        return true;
+    }
+
+    public void add(int index, T t) {
+        rangeCheckForAdd(index);
+        ensureCapacity((long) size() + 1);
+        //将原先从index位置开始的记录往后移动一个单位
+        moveRecords(index, index + 1, size() - index);
+        codec.write(region(index), offset(index), t);
+        setSize(size() + 1);
+    }
+
+    public T get(int index) {
+        rangeCheck(index);
+        return codec.read(region(index), offset(index));
+    }
+
+    public T set(int index, T t) {
+        rangeCheck(index);
+        T oldElement = codec.read(region(index), offset(index));
+        codec.write(region(index), offset(index), t);
+        return oldElement;
+    }
+
+    public T remove(int index) {
+        rangeCheck(index);
+        T removeElement = codec.read(region(index), offset(index));
+        //将被删除记录之后的记录向前移动一个单位
+        moveRecords(index + 1, index, size() - index - 1);
+        setSize(size() - 1);
+        return removeElement;
+    }
+
+    /**
+     * 保证文件至少能够容纳minCapacity条记录，容量不足时按2倍扩容并重新映射
+     */
+    public void ensureCapacity(long minCapacity) {
+        if (minCapacity <= capacity) {
+            return;
+        }
+        if (minCapacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("MappedArrayList can hold at most Integer.MAX_VALUE records");
+        }
+        long newCapacity = Math.min(Math.max(capacity * 2, minCapacity), Integer.MAX_VALUE);
+        long regionRecords = 1L << regionShift;
+        int regionCount = (int) ((newCapacity + regionRecords - 1) >>> regionShift);
+        try {
+            for (int r = 0; r < regionCount; r++) {
+                long records = Math.min(regionRecords, newCapacity - r * regionRecords);
+                long bytes = records * recordSize;
+                if (r < regions.size() && regions.get(r).capacity() == bytes) {
+                    //已经完整映射的region无需变动
+                    continue;
+                }
+                //以READ_WRITE方式映射超出文件末尾的区域时，文件会被自动扩展
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_SIZE + r * regionRecords * recordSize, bytes);
+                if (r < regions.size()) {
+                    regions.set(r, region);
+                } else {
+                    regions.add(region);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to remap file", e);
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * 将映射区域中的修改强制刷写到磁盘
+     */
+    public void force() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+        header.force();
+    }
+
+    /**
+     * 刷写并关闭文件，映射区域会在被GC回收时释放
+     */
+    public void close() throws IOException {
+        force();
+        regions.clear();
+        channel.close();
+    }
+
+    public Iterator<T> iterator() {
+        return new MappedArrayListIterator();
+    }
+
+    class MappedArrayListIterator implements Iterator<T> {
+
+        private int current = 0;
+
+        public boolean hasNext() {
+            return current < size();
+        }
+
+        public T next() {
+            if (current >= size()) {
+                throw new NoSuchElementException();
+            }
+            return get(current++);
+        }
+
+        public void remove() {
+            MappedArrayList.this.remove(--current);
+        }
+
+    }
+
+    private ByteBuffer region(int index) {
+        return regions.get(index >>> regionShift);
+    }
+
+    private int offset(int index) {
+        return (index & regionMask) * recordSize;
+    }
+
+    /**
+     * 把从from开始的count条记录整体移动到从to开始的位置，源区间与目标区间可以重叠。
+     * 以scratch为中转分块批量拷贝：往后移动时从末尾的块开始，往前移动时从开头的块开始，保证每一块在被覆盖之前已经读出
+     */
+    private void moveRecords(int from, int to, int count) {
+        long source = (long) from * recordSize;
+        long target = (long) to * recordSize;
+        long total = (long) count * recordSize;
+        for (long moved = 0; moved < total;) {
+            int length = (int) Math.min(total - moved, scratch.length);
+            long delta = to > from ? total - moved - length : moved;
+            transferBytes(source + delta, length, true);
+            transferBytes(target + delta, length, false);
+            moved += length;
+        }
+    }
+
+    /**
+     * 在记录区的字节位置position与scratch之间批量拷贝length个字节，跨越region边界时分段进行
+     *
+     * @param read 为true时从映射区域读到scratch，否则从scratch写入映射区域
+     */
+    private void transferBytes(long position, int length, boolean read) {
+        int done = 0;
+        while (done < length) {
+            ByteBuffer region = regions.get((int) (position / regionBytes)).duplicate();
+            int offset = (int) (position % regionBytes);
+            int n = Math.min(length - done, regionBytes - offset);
+            region.position(offset);
+            if (read) {
+                region.get(scratch, done, n);
+            } else {
+                region.put(scratch, done, n);
+            }
+            done += n;
+            position += n;
+        }
+    }
+
+    private void setSize(int newSize) {
+        size = newSize;
+        header.putInt(SIZE_OFFSET, newSize);
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void rangeCheckForAdd(int index) {
+        if (index < 0 || index > size()) {
+            //Add相比Get、Set，允许在末尾插入
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+}
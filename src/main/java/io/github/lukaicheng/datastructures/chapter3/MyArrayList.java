@@ -1,7 +1,12 @@
 package io.github.lukaicheng.datastructures.chapter3;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Chapter 3.4 ArrayList类的实现
@@ -12,12 +17,29 @@ import java.util.NoSuchElementException;
 public class MyArrayList<T> implements Iterable<T> {
     //默认数组容量
     private static final int DEFAULT_CAPICITY = 10;
+    //默认扩容倍数
+    private static final double DEFAULT_GROWTH_FACTOR = 2.0;
+    //部分虚拟机会在数组中保留头部信息，申请过大的数组可能导致OutOfMemoryError
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    //容量不足时按此倍数进行几何扩容，保证连续追加的均摊代价为O(1)
+    private final double growthFactor;
     //实际元素存放数组
     private T[] elements;
     //内部实际的元素个数
     private int size = 0;
 
     public MyArrayList() {
+        this(DEFAULT_GROWTH_FACTOR);
+    }
+
+    /**
+     * @param growthFactor 扩容倍数，必须大于1
+     */
+    public MyArrayList(double growthFactor) {
+        if (!(growthFactor > 1.0)) {
+            throw new IllegalArgumentException("Illegal growth factor: " + growthFactor);
+        }
+        this.growthFactor = growthFactor;
         clear();
     }
 
@@ -31,11 +53,30 @@ public class MyArrayList<T> implements Iterable<T> {
 
     public void clear() {
         size = 0;
-        ensureCapacity(DEFAULT_CAPICITY);
+        resize(DEFAULT_CAPICITY);
     }
 
     public void trimToSize() {
-        ensureCapacity(size());
+        resize(size());
+    }
+
+    /**
+     * 保证数组至少能够容纳minCapacity个元素，容量不足时按growthFactor几何扩容
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) {
+            //int溢出，说明元素个数已经超过数组所能容纳的上限
+            throw new OutOfMemoryError();
+        }
+        if (minCapacity <= elements.length) {
+            return;
+        }
+        //+1是防止原先容量为0的情况
+        long newCapacity = Math.max((long) (elements.length * growthFactor) + 1, minCapacity);
+        if (newCapacity > MAX_ARRAY_SIZE) {
+            newCapacity = Math.max(minCapacity, MAX_ARRAY_SIZE);
+        }
+        resize((int) newCapacity);
     }
 
     public boolean add(T t) {
@@ -47,15 +88,40 @@ public class MyArrayList<T> implements Iterable<T> {
 
     public void add(int index, T t) {
         rangeCheckForAdd(index);
-        if (elements.length == size()) {
-            //容量饱和，扩容到2倍+1，+1是防止原先容量为0的情况
-            ensureCapacity(size() * 2 + 1);
+        ensureCapacity(size() + 1);
+        //将原先数组中从index位置开始的元素整体往后移动一个单位
+        System.arraycopy(elements, index, elements, index + 1, size() - index);
+        elements[index] = t;
+        size++;
+    }
+
+    /**
+     * 批量追加集合中的元素，只进行一次扩容和一次块拷贝
+     */
+    public boolean addAll(Collection<? extends T> c) {
+        Object[] items = c.toArray();
+        return appendRange(items, 0, items.length);
+    }
+
+    /**
+     * 批量追加数组中[from, to)区间的元素
+     */
+    public boolean addAll(T[] items, int from, int to) {
+        return appendRange(items, from, to);
+    }
+
+    private boolean appendRange(Object[] items, int from, int to) {
+        if (from < 0 || to > items.length || from > to) {
+            throw new IndexOutOfBoundsException();
         }
-        for (int i = size(); i > index; i--) {
-            //将原先数组中从index位置开始的元素往后移动一个单位
-            elements[i] = elements[i - 1];
+        int count = to - from;
+        if (count == 0) {
+            return false;
         }
-        elements[index] = t;
+        ensureCapacity(size() + count);
+        System.arraycopy(items, from, elements, size(), count);
+        size += count;
+        return true;
     }
 
     public T get(int index) {
@@ -73,11 +139,10 @@ public class MyArrayList<T> implements Iterable<T> {
     public T remove(int index) {
         rangeCheck(index);
         T removeElement = elements[index];
-        for (int i = index; i < size() - 1; i++) {
-            //将被删除元素之后的元素向前移动一个单位
-            elements[i] = elements[i + 1];
-        }
-        size--;
+        //将被删除元素之后的元素整体向前移动一个单位
+        System.arraycopy(elements, index + 1, elements, index, size() - index - 1);
+        //释放末尾的引用，便于GC回收
+        elements[--size] = null;
         return removeElement;
     }
 
@@ -85,6 +150,21 @@ public class MyArrayList<T> implements Iterable<T> {
         return new ArrayListIterator();
     }
 
+    /**
+     * 按索引区间对半拆分的Spliterator，拆分出的每一部分大小都是精确已知的
+     */
+    public Spliterator<T> spliterator() {
+        return new ArrayListSpliterator(0, -1);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     class ArrayListIterator implements Iterator<T> {
 
         private int current = 0;
@@ -107,6 +187,70 @@ public class MyArrayList<T> implements Iterable<T> {
 
     }
 
+    class ArrayListSpliterator implements Spliterator<T> {
+
+        private int index;
+        //区间上界(不包含)，-1表示尚未绑定，直到第一次使用时才读取size，以便在创建后、使用前的修改依然可见
+        private int fence;
+
+        ArrayListSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                fence = size();
+            }
+            return fence;
+        }
+
+        public Spliterator<T> trySplit() {
+            int hi = getFence();
+            int mid = (index + hi) >>> 1;
+            if (index >= mid) {
+                //剩余元素太少，不再拆分
+                return null;
+            }
+            //前一半交给新的Spliterator，当前Spliterator保留后一半
+            Spliterator<T> prefix = new ArrayListSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (index >= getFence()) {
+                return false;
+            }
+            action.accept(elements[index++]);
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            T[] a = elements;
+            int hi = getFence();
+            for (int i = index; i < hi; i++) {
+                action.accept(a[i]);
+            }
+            index = hi;
+        }
+
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+    }
+
     private void rangeCheck(int index) {
         if (index < 0 || index >= size()) {
             throw new IndexOutOfBoundsException();
@@ -121,7 +265,7 @@ public class MyArrayList<T> implements Iterable<T> {
     }
 
     @SuppressWarnings("unchecked")
-    private void ensureCapacity(int newCapacity) {
+    private void resize(int newCapacity) {
         if (newCapacity < size()) {
             //如果新容量要求小于实际元素个数，则目前的容量满足需求
             return;
@@ -132,8 +276,9 @@ public class MyArrayList<T> implements Iterable<T> {
         }
         T[] oldArray = elements;
         elements = (T[]) new Object[newCapacity];
-        for (int i = 0; i < size(); i++) {
-            elements[i] = oldArray[i];
+        if (oldArray != null) {
+            //构造时首次调用clear()，此时还没有原数组
+            System.arraycopy(oldArray, 0, elements, 0, size());
         }
     }
 
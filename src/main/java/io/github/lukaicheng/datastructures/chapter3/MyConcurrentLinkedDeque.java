@@ -0,0 +1,617 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * MyLinkedList的线程安全双端版本：基于CAS的无锁双向链表，两端都可以无锁地插入和取出
+ *
+ * 与MyLinkedList一样每个节点同时持有prev和next，但双向链表无法用一次CAS同时修改两条链，因此采用ConcurrentLinkedDeque的做法：
+ * 一、只有next链(从头往尾)和prev链(从尾往头)各自在一端的插入是原子的：offerLast用CAS把新节点挂到最后一个节点的next上，
+ *    offerFirst用CAS把新节点挂到第一个节点的prev上，另一方向的链接在CAS之前就已写入新节点，因此两条链始终一致
+ * 二、取出分为两步：先用CAS把节点中的元素置为null来"认领"元素(逻辑删除)，再尽力把它从两条链中摘除(物理删除)，
+ *    摘除失败也无妨，遍历时会跳过元素为null的节点，之后的操作会顺带把它们摘除
+ * 三、被摘除的节点让next或prev指向自己，遍历到这样的节点说明它已脱离链表，需要从head或tail重新开始
+ * 四、head和tail只是提示，可能落后于真正的两端，任何线程发现其落后都会帮忙推进
+ *
+ * 迭代器是弱一致性的：不会抛出ConcurrentModificationException，能看到迭代开始后的部分修改。
+ * 不允许插入null，null用来表示元素已经被取走
+ *
+ * @see java.util.concurrent.ConcurrentLinkedDeque
+ */
+public class MyConcurrentLinkedDeque<T> implements Iterable<T> {
+
+    //两端附近的已删除节点累计达到该数目才摘除，减少CAS次数
+    private static final int HOPS = 2;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MyConcurrentLinkedDeque, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(MyConcurrentLinkedDeque.class, Node.class, "head");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MyConcurrentLinkedDeque, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(MyConcurrentLinkedDeque.class, Node.class, "tail");
+
+    //从头部摘除的节点的prev指向PREV_TERMINATOR，从尾部摘除的节点的next指向NEXT_TERMINATOR，
+    //使得沿着对应方向插入的线程能够发现节点已脱离链表
+    private static final Node<Object> PREV_TERMINATOR;
+    private static final Node<Object> NEXT_TERMINATOR;
+
+    static {
+        PREV_TERMINATOR = new Node<Object>(null);
+        PREV_TERMINATOR.next = PREV_TERMINATOR;
+        NEXT_TERMINATOR = new Node<Object>(null);
+        NEXT_TERMINATOR.prev = NEXT_TERMINATOR;
+    }
+
+    //接近第一个节点的某个节点，沿prev链一定能到达第一个节点
+    private volatile Node<T> head;
+    //接近最后一个节点的某个节点，沿next链一定能到达最后一个节点
+    private volatile Node<T> tail;
+
+    private static class Node<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Object> ITEM =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "data");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> PREV =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "prev");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        //为null表示元素已经被取走或删除
+        volatile T data;
+        volatile Node<T> prev;
+        volatile Node<T> next;
+
+        Node(T data) {
+            this.data = data;
+        }
+
+        boolean casData(T expect, T update) {
+            return ITEM.compareAndSet(this, expect, update);
+        }
+
+        boolean casPrev(Node<T> expect, Node<T> update) {
+            return PREV.compareAndSet(this, expect, update);
+        }
+
+        boolean casNext(Node<T> expect, Node<T> update) {
+            return NEXT.compareAndSet(this, expect, update);
+        }
+    }
+
+    public MyConcurrentLinkedDeque() {
+        head = tail = new Node<T>(null);
+    }
+
+    /**
+     * 在头部插入元素，不允许插入null
+     */
+    public boolean offerFirst(T t) {
+        if (t == null) {
+            throw new NullPointerException();
+        }
+        Node<T> newNode = new Node<T>(t);
+        restartFromHead:
+        for (;;) {
+            for (Node<T> h = head, p = h, q;;) {
+                if ((q = p.prev) != null && (q = (p = q).prev) != null) {
+                    //每走两步检查一次head是否已被推进，是则直接跳到新的head
+                    p = (h != (h = head)) ? h : q;
+                } else if (p.next == p) {
+                    //p已从头部摘除
+                    continue restartFromHead;
+                } else {
+                    //p是第一个节点，先写好新节点的next，再用CAS把它挂到p的prev上
+                    newNode.next = p;
+                    if (p.casPrev(null, newNode)) {
+                        if (p != h) {
+                            //head已落后两个节点以上才推进，失败也无妨
+                            casHead(h, newNode);
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 在尾部插入元素，不允许插入null
+     */
+    public boolean offerLast(T t) {
+        if (t == null) {
+            throw new NullPointerException();
+        }
+        Node<T> newNode = new Node<T>(t);
+        restartFromTail:
+        for (;;) {
+            for (Node<T> tl = tail, p = tl, q;;) {
+                if ((q = p.next) != null && (q = (p = q).next) != null) {
+                    p = (tl != (tl = tail)) ? tl : q;
+                } else if (p.prev == p) {
+                    //p已从尾部摘除
+                    continue restartFromTail;
+                } else {
+                    newNode.prev = p;
+                    if (p.casNext(null, newNode)) {
+                        if (p != tl) {
+                            casTail(tl, newNode);
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 与offerLast相同，作为队列使用时在队尾入队
+     */
+    public boolean offer(T t) {
+        return offerLast(t);
+    }
+
+    /**
+     * 取出并返回第一个元素，为空时返回null
+     */
+    public T pollFirst() {
+        for (Node<T> p = first(); p != null; p = succ(p)) {
+            T data = p.data;
+            if (data != null && p.casData(data, null)) {
+                unlink(p);
+                return data;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取出并返回最后一个元素，为空时返回null
+     */
+    public T pollLast() {
+        for (Node<T> p = last(); p != null; p = pred(p)) {
+            T data = p.data;
+            if (data != null && p.casData(data, null)) {
+                unlink(p);
+                return data;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 与pollFirst相同，作为队列使用时在队首出队
+     */
+    public T poll() {
+        return pollFirst();
+    }
+
+    /**
+     * 返回但不取出第一个元素，为空时返回null
+     */
+    public T peekFirst() {
+        for (Node<T> p = first(); p != null; p = succ(p)) {
+            T data = p.data;
+            if (data != null) {
+                return data;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回但不取出最后一个元素，为空时返回null
+     */
+    public T peekLast() {
+        for (Node<T> p = last(); p != null; p = pred(p)) {
+            T data = p.data;
+            if (data != null) {
+                return data;
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return peekFirst() == null;
+    }
+
+    /**
+     * 需要遍历整个双端队列，时间复杂度为O(n)，并发修改时结果只是一个近似值
+     */
+    public int size() {
+        int count = 0;
+        for (Node<T> p = first(); p != null; p = succ(p)) {
+            if (p.data != null && ++count == Integer.MAX_VALUE) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 从头到尾的弱一致性迭代器
+     */
+    public Iterator<T> iterator() {
+        return new ConcurrentLinkedDequeIterator(false);
+    }
+
+    /**
+     * 从尾到头的弱一致性迭代器
+     */
+    public Iterator<T> descendingIterator() {
+        return new ConcurrentLinkedDequeIterator(true);
+    }
+
+    class ConcurrentLinkedDequeIterator implements Iterator<T> {
+
+        private final boolean descending;
+        //下一个待返回的节点及其元素，提前读取元素保证hasNext()返回true之后next()一定能返回该元素
+        private Node<T> nextNode;
+        private T nextData;
+        //最近一次next()返回的节点，用于remove
+        private Node<T> lastReturned;
+
+        ConcurrentLinkedDequeIterator(boolean descending) {
+            this.descending = descending;
+            advance(descending ? last() : first());
+        }
+
+        private void advance(Node<T> node) {
+            //跳过已经被取走的节点
+            while (node != null) {
+                T data = node.data;
+                if (data != null) {
+                    nextNode = node;
+                    nextData = data;
+                    return;
+                }
+                node = descending ? pred(node) : succ(node);
+            }
+            nextNode = null;
+            nextData = null;
+        }
+
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        public T next() {
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            T result = nextData;
+            lastReturned = nextNode;
+            advance(descending ? pred(nextNode) : succ(nextNode));
+            return result;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            //元素已经被其他线程取走时则什么也不做
+            T data = lastReturned.data;
+            if (data != null && lastReturned.casData(data, null)) {
+                unlink(lastReturned);
+            }
+            lastReturned = null;
+        }
+
+    }
+
+    /**
+     * 返回第一个节点(其元素可能已被取走)，顺带把head推进到该节点
+     */
+    private Node<T> first() {
+        restartFromHead:
+        for (;;) {
+            for (Node<T> h = head, p = h, q;;) {
+                if ((q = p.prev) != null && (q = (p = q).prev) != null) {
+                    p = (h != (h = head)) ? h : q;
+                } else if (p == h || casHead(h, p)) {
+                    //p可能是PREV_TERMINATOR，但这时CAS一定会失败
+                    return p;
+                } else {
+                    continue restartFromHead;
+                }
+            }
+        }
+    }
+
+    /**
+     * 返回最后一个节点(其元素可能已被取走)，顺带把tail推进到该节点
+     */
+    private Node<T> last() {
+        restartFromTail:
+        for (;;) {
+            for (Node<T> tl = tail, p = tl, q;;) {
+                if ((q = p.next) != null && (q = (p = q).next) != null) {
+                    p = (tl != (tl = tail)) ? tl : q;
+                } else if (p == tl || casTail(tl, p)) {
+                    return p;
+                } else {
+                    continue restartFromTail;
+                }
+            }
+        }
+    }
+
+    /**
+     * p的后继，p已脱离链表(next指向自己)时从头重新开始
+     */
+    private Node<T> succ(Node<T> p) {
+        Node<T> q = p.next;
+        return (p == q) ? first() : q;
+    }
+
+    /**
+     * p的前驱，p已脱离链表(prev指向自己)时从尾重新开始
+     */
+    private Node<T> pred(Node<T> p) {
+        Node<T> q = p.prev;
+        return (p == q) ? last() : q;
+    }
+
+    /**
+     * 把元素已被取走的节点x从链表中摘除
+     */
+    private void unlink(Node<T> x) {
+        Node<T> prev = x.prev;
+        Node<T> next = x.next;
+        if (prev == null) {
+            unlinkFirst(x, next);
+        } else if (next == null) {
+            unlinkLast(x, prev);
+        } else {
+            //x位于中间：分别找到前后最近的仍然有效的节点，把它们之间的已删除节点一起跳过
+            Node<T> activePred;
+            Node<T> activeSucc;
+            boolean isFirst;
+            boolean isLast;
+            int hops = 1;
+            for (Node<T> p = prev;; ++hops) {
+                if (p.data != null) {
+                    activePred = p;
+                    isFirst = false;
+                    break;
+                }
+                Node<T> q = p.prev;
+                if (q == null) {
+                    if (p.next == p) {
+                        return;
+                    }
+                    activePred = p;
+                    isFirst = true;
+                    break;
+                } else if (p == q) {
+                    return;
+                } else {
+                    p = q;
+                }
+            }
+            for (Node<T> p = next;; ++hops) {
+                if (p.data != null) {
+                    activeSucc = p;
+                    isLast = false;
+                    break;
+                }
+                Node<T> q = p.next;
+                if (q == null) {
+                    if (p.prev == p) {
+                        return;
+                    }
+                    activeSucc = p;
+                    isLast = true;
+                    break;
+                } else if (p == q) {
+                    return;
+                } else {
+                    p = q;
+                }
+            }
+            if (hops < HOPS && (isFirst | isLast)) {
+                //靠近两端的少量已删除节点留给之后的操作一并摘除
+                return;
+            }
+            skipDeletedSuccessors(activePred);
+            skipDeletedPredecessors(activeSucc);
+            //x已被跳过，若它靠近某一端且两侧状态仍符合预期，则让它的链接指向自己或终结节点，以便被回收
+            if ((isFirst | isLast)
+                    && activePred.next == activeSucc
+                    && activeSucc.prev == activePred
+                    && (isFirst ? activePred.prev == null : activePred.data != null)
+                    && (isLast ? activeSucc.next == null : activeSucc.data != null)) {
+                updateHead();
+                updateTail();
+                x.prev = isFirst ? prevTerminator() : x;
+                x.next = isLast ? nextTerminator() : x;
+            }
+        }
+    }
+
+    /**
+     * 摘除第一个节点first之后连续的已删除节点，first本身作为新的端点保留
+     */
+    private void unlinkFirst(Node<T> first, Node<T> next) {
+        for (Node<T> o = null, p = next, q;;) {
+            if (p.data != null || (q = p.next) == null) {
+                if (o != null && p.prev != p && first.casNext(next, p)) {
+                    skipDeletedPredecessors(p);
+                    if (first.prev == null && (p.next == null || p.data != null) && p.prev == first) {
+                        updateHead();
+                        updateTail();
+                        o.next = o;
+                        o.prev = prevTerminator();
+                    }
+                }
+                return;
+            } else if (p == q) {
+                return;
+            } else {
+                o = p;
+                p = q;
+            }
+        }
+    }
+
+    /**
+     * 摘除最后一个节点last之前连续的已删除节点，last本身作为新的端点保留
+     */
+    private void unlinkLast(Node<T> last, Node<T> prev) {
+        for (Node<T> o = null, p = prev, q;;) {
+            if (p.data != null || (q = p.prev) == null) {
+                if (o != null && p.next != p && last.casPrev(prev, p)) {
+                    skipDeletedSuccessors(p);
+                    if (last.next == null && (p.prev == null || p.data != null) && p.next == last) {
+                        updateHead();
+                        updateTail();
+                        o.prev = o;
+                        o.next = nextTerminator();
+                    }
+                }
+                return;
+            } else if (p == q) {
+                return;
+            } else {
+                o = p;
+                p = q;
+            }
+        }
+    }
+
+    /**
+     * 保证head不再指向已删除的节点：要么head本身有效，要么把它推进到第一个节点
+     */
+    private void updateHead() {
+        Node<T> h;
+        Node<T> p;
+        Node<T> q;
+        restartFromHead:
+        while ((h = head).data == null && (p = h.prev) != null) {
+            for (;;) {
+                if ((q = p.prev) == null || (q = (p = q).prev) == null) {
+                    if (casHead(h, p)) {
+                        return;
+                    }
+                    continue restartFromHead;
+                } else if (h != head) {
+                    continue restartFromHead;
+                } else {
+                    p = q;
+                }
+            }
+        }
+    }
+
+    /**
+     * 保证tail不再指向已删除的节点：要么tail本身有效，要么把它推进到最后一个节点
+     */
+    private void updateTail() {
+        Node<T> tl;
+        Node<T> p;
+        Node<T> q;
+        restartFromTail:
+        while ((tl = tail).data == null && (p = tl.next) != null) {
+            for (;;) {
+                if ((q = p.next) == null || (q = (p = q).next) == null) {
+                    if (casTail(tl, p)) {
+                        return;
+                    }
+                    continue restartFromTail;
+                } else if (tl != tail) {
+                    continue restartFromTail;
+                } else {
+                    p = q;
+                }
+            }
+        }
+    }
+
+    /**
+     * 让x.prev跳过它前面连续的已删除节点
+     */
+    private void skipDeletedPredecessors(Node<T> x) {
+        whileActive:
+        do {
+            Node<T> prev = x.prev;
+            Node<T> p = prev;
+            findActive:
+            for (;;) {
+                if (p.data != null) {
+                    break findActive;
+                }
+                Node<T> q = p.prev;
+                if (q == null) {
+                    if (p.next == p) {
+                        continue whileActive;
+                    }
+                    break findActive;
+                } else if (p == q) {
+                    continue whileActive;
+                } else {
+                    p = q;
+                }
+            }
+            if (prev == p || x.casPrev(prev, p)) {
+                return;
+            }
+        } while (x.data != null || x.next == null);
+    }
+
+    /**
+     * 让x.next跳过它后面连续的已删除节点
+     */
+    private void skipDeletedSuccessors(Node<T> x) {
+        whileActive:
+        do {
+            Node<T> next = x.next;
+            Node<T> p = next;
+            findActive:
+            for (;;) {
+                if (p.data != null) {
+                    break findActive;
+                }
+                Node<T> q = p.next;
+                if (q == null) {
+                    if (p.prev == p) {
+                        continue whileActive;
+                    }
+                    break findActive;
+                } else if (p == q) {
+                    continue whileActive;
+                } else {
+                    p = q;
+                }
+            }
+            if (next == p || x.casNext(next, p)) {
+                return;
+            }
+        } while (x.data != null || x.prev == null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<T> prevTerminator() {
+        return (Node<T>) (Node<?>) PREV_TERMINATOR;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<T> nextTerminator() {
+        return (Node<T>) (Node<?>) NEXT_TERMINATOR;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean casHead(Node<T> expect, Node<T> update) {
+        return HEAD.compareAndSet(this, expect, update);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean casTail(Node<T> expect, Node<T> update) {
+        return TAIL.compareAndSet(this, expect, update);
+    }
+
+}
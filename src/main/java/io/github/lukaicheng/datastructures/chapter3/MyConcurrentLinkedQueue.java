@@ -0,0 +1,220 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * MyLinkedList的线程安全版本：基于CAS的无锁队列(Michael-Scott算法)
+ *
+ * 与MyLinkedList一样借助一个不保存元素的端点节点简化边界处理：head始终指向这个哨兵节点，
+ * 真正的第一个元素是head.next；tail指向最后一个节点，但允许短暂落后，任何线程发现其落后都会帮忙推进。
+ *
+ * 出队时先用CAS把节点中的元素置为null来"认领"元素，再推进head，保证每个元素只会被一个线程取走。
+ * 迭代器是弱一致性的：不会抛出ConcurrentModificationException，能看到迭代开始后的部分修改。
+ *
+ * 只需要尾部入队、头部出队时单向链表足够；需要在两端同时插入和取出时使用MyConcurrentLinkedDeque
+ *
+ */
+public class MyConcurrentLinkedQueue<T> implements Iterable<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MyConcurrentLinkedQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(MyConcurrentLinkedQueue.class, Node.class, "head");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MyConcurrentLinkedQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(MyConcurrentLinkedQueue.class, Node.class, "tail");
+
+    //哨兵节点，head.next才是第一个元素
+    private volatile Node<T> head;
+    //最后一个节点，可能暂时落后于真正的队尾
+    private volatile Node<T> tail;
+
+    private static class Node<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Object> ITEM =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "data");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        //为null表示元素已经被取走或删除
+        volatile T data;
+        volatile Node<T> next;
+
+        Node(T data) {
+            this.data = data;
+        }
+
+        boolean casData(T expect, T update) {
+            return ITEM.compareAndSet(this, expect, update);
+        }
+
+        boolean casNext(Node<T> expect, Node<T> update) {
+            return NEXT.compareAndSet(this, expect, update);
+        }
+    }
+
+    public MyConcurrentLinkedQueue() {
+        head = tail = new Node<T>(null);
+    }
+
+    /**
+     * 在队尾插入元素，不允许插入null
+     */
+    public boolean offer(T t) {
+        if (t == null) {
+            throw new NullPointerException();
+        }
+        Node<T> newNode = new Node<T>(t);
+        for (;;) {
+            Node<T> last = tail;
+            Node<T> next = last.next;
+            if (last != tail) {
+                //读取期间tail已经被其他线程改变，重新读取
+                continue;
+            }
+            if (next == null) {
+                //last确实是最后一个节点，尝试把新节点链接到它后面
+                if (last.casNext(null, newNode)) {
+                    //链接成功即完成入队，推进tail失败也无妨，其他线程会帮忙推进
+                    casTail(last, newNode);
+                    return true;
+                }
+            } else {
+                //tail落后了，帮忙推进后重试
+                casTail(last, next);
+            }
+        }
+    }
+
+    /**
+     * 取出并返回队首元素，队列为空时返回null
+     */
+    public T poll() {
+        for (;;) {
+            Node<T> first = head;
+            Node<T> next = first.next;
+            if (first != head) {
+                continue;
+            }
+            if (next == null) {
+                return null;
+            }
+            Node<T> last = tail;
+            if (first == last) {
+                //tail落后了，先帮忙推进tail，避免head越过tail
+                casTail(last, next);
+            }
+            T data = next.data;
+            if (data != null && next.casData(data, null)) {
+                //成功认领元素，next成为新的哨兵节点
+                casHead(first, next);
+                return data;
+            }
+            //元素已经被其他线程取走，帮忙推进head后重试
+            casHead(first, next);
+        }
+    }
+
+    /**
+     * 返回但不取出队首元素，队列为空时返回null
+     */
+    public T peek() {
+        for (Node<T> node = head.next; node != null; node = node.next) {
+            T data = node.data;
+            if (data != null) {
+                return data;
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * 需要遍历整个队列，时间复杂度为O(n)，并发修改时结果只是一个近似值
+     */
+    public int size() {
+        int count = 0;
+        for (Node<T> node = head.next; node != null; node = node.next) {
+            if (node.data != null && ++count == Integer.MAX_VALUE) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    public Iterator<T> iterator() {
+        return new ConcurrentLinkedQueueIterator();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean casHead(Node<T> expect, Node<T> update) {
+        return HEAD.compareAndSet(this, expect, update);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean casTail(Node<T> expect, Node<T> update) {
+        return TAIL.compareAndSet(this, expect, update);
+    }
+
+    class ConcurrentLinkedQueueIterator implements Iterator<T> {
+
+        //下一个待返回的节点及其元素，提前读取元素保证hasNext()返回true之后next()一定能返回该元素
+        private Node<T> nextNode;
+        private T nextData;
+        //最近一次next()返回的节点，用于remove
+        private Node<T> lastReturned;
+
+        ConcurrentLinkedQueueIterator() {
+            advance(head.next);
+        }
+
+        private void advance(Node<T> node) {
+            //跳过已经被取走的节点
+            while (node != null) {
+                T data = node.data;
+                if (data != null) {
+                    nextNode = node;
+                    nextData = data;
+                    return;
+                }
+                node = node.next;
+            }
+            nextNode = null;
+            nextData = null;
+        }
+
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        public T next() {
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            T result = nextData;
+            lastReturned = nextNode;
+            advance(nextNode.next);
+            return result;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            //逻辑删除，节点会在出队经过时被跳过；元素已经被其他线程取走时则什么也不做
+            T data = lastReturned.data;
+            if (data != null) {
+                lastReturned.casData(data, null);
+            }
+            lastReturned = null;
+        }
+
+    }
+
+}
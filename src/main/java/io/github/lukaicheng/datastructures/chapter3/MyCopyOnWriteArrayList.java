@@ -0,0 +1,167 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * MyArrayList的写时复制(copy-on-write)版本，适用于读多写少且需要多线程并发迭代的场景
+ *
+ * 每次修改都会复制出一个新数组，在新数组上修改完成后再通过volatile写一次性发布，已发布的数组永远不会再被修改。
+ * 因此读操作和迭代无需加锁，迭代器看到的是创建时刻的不可变快照，既不会阻塞也不会抛出ConcurrentModificationException。
+ * 写操作之间通过同一把锁互斥，避免并发修改时丢失更新。
+ *
+ */
+public class MyCopyOnWriteArrayList<T> implements Iterable<T> {
+    //写操作之间互斥使用的锁
+    private final Object lock = new Object();
+    //实际元素存放数组，长度恰好等于元素个数
+    private volatile Object[] elements;
+
+    public MyCopyOnWriteArrayList() {
+        elements = new Object[0];
+    }
+
+    public int size() {
+        return elements.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            elements = new Object[0];
+        }
+    }
+
+    public boolean add(T t) {
+        synchronized (lock) {
+            Object[] oldArray = elements;
+            Object[] newArray = Arrays.copyOf(oldArray, oldArray.length + 1);
+            newArray[oldArray.length] = t;
+            elements = newArray;
+            return true;
+        }
+    }
+
+    public void add(int index, T t) {
+        synchronized (lock) {
+            Object[] oldArray = elements;
+            if (index < 0 || index > oldArray.length) {
+                //Add相比Get、Set，允许在末尾插入
+                throw new IndexOutOfBoundsException();
+            }
+            Object[] newArray = new Object[oldArray.length + 1];
+            System.arraycopy(oldArray, 0, newArray, 0, index);
+            newArray[index] = t;
+            System.arraycopy(oldArray, index, newArray, index + 1, oldArray.length - index);
+            elements = newArray;
+        }
+    }
+
+    /**
+     * 批量追加只复制一次数组，比逐个add代价小得多
+     */
+    public boolean addAll(Collection<? extends T> c) {
+        Object[] items = c.toArray();
+        if (items.length == 0) {
+            return false;
+        }
+        synchronized (lock) {
+            Object[] oldArray = elements;
+            Object[] newArray = Arrays.copyOf(oldArray, oldArray.length + items.length);
+            System.arraycopy(items, 0, newArray, oldArray.length, items.length);
+            elements = newArray;
+            return true;
+        }
+    }
+
+    public T get(int index) {
+        return elementAt(elements, index);
+    }
+
+    public T set(int index, T t) {
+        synchronized (lock) {
+            Object[] oldArray = elements;
+            T oldElement = elementAt(oldArray, index);
+            Object[] newArray = Arrays.copyOf(oldArray, oldArray.length);
+            newArray[index] = t;
+            elements = newArray;
+            return oldElement;
+        }
+    }
+
+    public T remove(int index) {
+        synchronized (lock) {
+            Object[] oldArray = elements;
+            T removeElement = elementAt(oldArray, index);
+            Object[] newArray = new Object[oldArray.length - 1];
+            System.arraycopy(oldArray, 0, newArray, 0, index);
+            System.arraycopy(oldArray, index + 1, newArray, index, oldArray.length - index - 1);
+            elements = newArray;
+            return removeElement;
+        }
+    }
+
+    /**
+     * 返回的迭代器基于当前数组快照，不支持remove
+     */
+    public Iterator<T> iterator() {
+        return new CopyOnWriteIterator(elements);
+    }
+
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(elements, Spliterator.IMMUTABLE | Spliterator.ORDERED);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(Object[] array, int index) {
+        if (index < 0 || index >= array.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (T) array[index];
+    }
+
+    class CopyOnWriteIterator implements Iterator<T> {
+
+        private final Object[] snapshot;
+        private int current = 0;
+
+        CopyOnWriteIterator(Object[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public boolean hasNext() {
+            return current < snapshot.length;
+        }
+
+        public T next() {
+            if (current >= snapshot.length) {
+                throw new NoSuchElementException();
+            }
+            return elementAt(snapshot, current++);
+        }
+
+        public void remove() {
+            //快照不可修改
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
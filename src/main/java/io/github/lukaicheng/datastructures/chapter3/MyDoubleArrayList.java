@@ -0,0 +1,179 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * MyArrayList针对double的特化版本
+ *
+ * 元素直接存放在double[]中，避免了装箱带来的额外对象以及get时的指针跳转，适合存放海量数值
+ *
+ */
+public class MyDoubleArrayList implements Iterable<Double> {
+    //默认数组容量
+    private static final int DEFAULT_CAPACITY = 10;
+    //部分虚拟机会在数组中保留头部信息，申请过大的数组可能导致OutOfMemoryError
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    //实际元素存放数组
+    private double[] elements;
+    //内部实际的元素个数
+    private int size = 0;
+
+    public MyDoubleArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MyDoubleArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        elements = new double[initialCapacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        size = 0;
+        elements = new double[DEFAULT_CAPACITY];
+    }
+
+    public void trimToSize() {
+        if (elements.length > size()) {
+            elements = Arrays.copyOf(elements, size());
+        }
+    }
+
+    public boolean add(double value) {
+        ensureCapacity(size() + 1);
+        elements[size++] = value;
+        return true;
+    }
+
+    public void add(int index, double value) {
+        rangeCheckForAdd(index);
+        ensureCapacity(size() + 1);
+        //将原先数组中从index位置开始的元素整体往后移动一个单位
+        System.arraycopy(elements, index, elements, index + 1, size() - index);
+        elements[index] = value;
+        size++;
+    }
+
+    /**
+     * 批量追加，只进行一次扩容和一次块拷贝
+     */
+    public boolean addAll(double[] values) {
+        if (values.length == 0) {
+            return false;
+        }
+        ensureCapacity(size() + values.length);
+        System.arraycopy(values, 0, elements, size(), values.length);
+        size += values.length;
+        return true;
+    }
+
+    public double get(int index) {
+        rangeCheck(index);
+        return elements[index];
+    }
+
+    public double set(int index, double value) {
+        rangeCheck(index);
+        double oldElement = elements[index];
+        elements[index] = value;
+        return oldElement;
+    }
+
+    public double remove(int index) {
+        rangeCheck(index);
+        double removeElement = elements[index];
+        //将被删除元素之后的元素整体向前移动一个单位
+        System.arraycopy(elements, index + 1, elements, index, size() - index - 1);
+        size--;
+        return removeElement;
+    }
+
+    public double[] toArray() {
+        return Arrays.copyOf(elements, size());
+    }
+
+    public PrimitiveIterator.OfDouble iterator() {
+        return new DoubleArrayListIterator();
+    }
+
+    /**
+     * 直接基于底层数组的[0, size)区间拆分，拆分结果的大小精确已知
+     */
+    public Spliterator.OfDouble spliterator() {
+        return Spliterators.spliterator(elements, 0, size(), Spliterator.ORDERED);
+    }
+
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    public DoubleStream parallelStream() {
+        return StreamSupport.doubleStream(spliterator(), true);
+    }
+
+    class DoubleArrayListIterator implements PrimitiveIterator.OfDouble {
+
+        private int current = 0;
+
+        public boolean hasNext() {
+            return current < size();
+        }
+
+        public double nextDouble() {
+            if (current >= size()) {
+                throw new NoSuchElementException();
+            }
+            return elements[current++];
+        }
+
+        public void remove() {
+            MyDoubleArrayList.this.remove(--current);
+        }
+
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void rangeCheckForAdd(int index) {
+        if (index < 0 || index > size()) {
+            //Add相比Get、Set，允许在末尾插入
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) {
+            //int溢出，说明元素个数已经超过数组所能容纳的上限
+            throw new OutOfMemoryError();
+        }
+        if (minCapacity <= elements.length) {
+            return;
+        }
+        //容量按2倍+1增长，保证连续追加的均摊代价为O(1)
+        long newCapacity = Math.max((long) elements.length * 2 + 1, minCapacity);
+        if (newCapacity > MAX_ARRAY_SIZE) {
+            newCapacity = Math.max(minCapacity, MAX_ARRAY_SIZE);
+        }
+        elements = Arrays.copyOf(elements, (int) newCapacity);
+    }
+
+}
@@ -0,0 +1,169 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 基于间隙缓冲区(gap buffer)的MyArrayList，适用于在某个位置附近反复插入、删除的场景(如文本编辑器)
+ *
+ * 数组中保留一段空闲区间[gapStart, gapEnd)，逻辑上的元素分布在间隙两侧。插入和删除总是在间隙处进行，
+ * 只需要先把间隙移动到目标位置，移动的代价与距离上一次编辑位置的距离成正比，而不是与元素总数成正比。
+ * 因此在上一次编辑位置附近的连续编辑为均摊O(1)，间隙的移动使用块拷贝完成。
+ *
+ */
+public class MyGapArrayList<T> implements Iterable<T> {
+    //默认数组容量
+    private static final int DEFAULT_CAPACITY = 10;
+    //部分虚拟机会在数组中保留头部信息，申请过大的数组可能导致OutOfMemoryError
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    //实际元素存放数组，其中[gapStart, gapEnd)为间隙
+    private Object[] elements;
+    //间隙的起始位置(包含)，同时也是间隙之前的元素个数
+    private int gapStart;
+    //间隙的结束位置(不包含)
+    private int gapEnd;
+
+    public MyGapArrayList() {
+        clear();
+    }
+
+    public int size() {
+        return elements.length - (gapEnd - gapStart);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        elements = new Object[DEFAULT_CAPACITY];
+        gapStart = 0;
+        gapEnd = elements.length;
+    }
+
+    public boolean add(T t) {
+        add(size(), t);
+        return true;
+    }
+
+    public void add(int index, T t) {
+        if (index < 0 || index > size()) {
+            //Add相比Get、Set，允许在末尾插入
+            throw new IndexOutOfBoundsException();
+        }
+        if (gapStart == gapEnd) {
+            //间隙已用完，扩容时直接把新的间隙放在插入位置
+            grow(index);
+        } else {
+            moveGap(index);
+        }
+        elements[gapStart++] = t;
+    }
+
+    public T get(int index) {
+        rangeCheck(index);
+        return elementAt(physicalIndex(index));
+    }
+
+    public T set(int index, T t) {
+        rangeCheck(index);
+        int pos = physicalIndex(index);
+        T oldElement = elementAt(pos);
+        elements[pos] = t;
+        return oldElement;
+    }
+
+    public T remove(int index) {
+        rangeCheck(index);
+        moveGap(index);
+        //被删除元素恰好位于间隙之后，直接将其并入间隙
+        T removeElement = elementAt(gapEnd);
+        elements[gapEnd++] = null;
+        return removeElement;
+    }
+
+    public Iterator<T> iterator() {
+        return new GapArrayListIterator();
+    }
+
+    class GapArrayListIterator implements Iterator<T> {
+
+        private int current = 0;
+
+        public boolean hasNext() {
+            return current < size();
+        }
+
+        public T next() {
+            if (current >= size()) {
+                throw new NoSuchElementException();
+            }
+            return elementAt(physicalIndex(current++));
+        }
+
+        public void remove() {
+            //与MyArrayList相同，后续元素的逻辑索引都前进了一位
+            MyGapArrayList.this.remove(--current);
+        }
+
+    }
+
+    private int physicalIndex(int index) {
+        return index < gapStart ? index : index + (gapEnd - gapStart);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int pos) {
+        return (T) elements[pos];
+    }
+
+    /**
+     * 将间隙移动到逻辑位置index处
+     */
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            //将[index, gapStart)的元素整体搬到间隙的尾部
+            int count = gapStart - index;
+            System.arraycopy(elements, index, elements, gapEnd - count, count);
+            gapStart = index;
+            gapEnd -= count;
+            //释放被搬走元素留下的引用，便于GC回收
+            Arrays.fill(elements, gapStart, Math.min(gapStart + count, gapEnd), null);
+        } else if (index > gapStart) {
+            //将间隙之后的count个元素整体搬到间隙的头部
+            int count = index - gapStart;
+            System.arraycopy(elements, gapEnd, elements, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+            Arrays.fill(elements, Math.max(gapEnd - count, gapStart), gapEnd, null);
+        }
+    }
+
+    /**
+     * 只有间隙用完时才会扩容，此时数组中没有间隙，逻辑索引与物理索引一致
+     */
+    private void grow(int index) {
+        int size = size();
+        if (size == MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError();
+        }
+        //容量按2倍+1增长，+1是防止原先容量为0的情况
+        int newCapacity = (int) Math.min((long) elements.length * 2 + 1, MAX_ARRAY_SIZE);
+        Object[] newArray = new Object[newCapacity];
+        int tail = size - index;
+        //index两侧的元素分别拷贝到新数组的两端，新的间隙正好位于index处
+        System.arraycopy(elements, 0, newArray, 0, index);
+        System.arraycopy(elements, index, newArray, newCapacity - tail, tail);
+        elements = newArray;
+        gapStart = index;
+        gapEnd = newCapacity - tail;
+    }
+
+    private void rangeCheck(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+}
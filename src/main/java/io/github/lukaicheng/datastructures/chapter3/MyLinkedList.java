@@ -2,7 +2,13 @@ package io.github.lukaicheng.datastructures.chapter3;
 
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Chapter 3.5 LinkedList类的实现
@@ -107,7 +113,34 @@ public class MyLinkedList<T> implements Iterable<T> {
     }
 
     public Iterator<T> iterator() {
-        return new LinkedListIterator();
+        return new LinkedListIterator(head.next, 0);
+    }
+
+    public ListIterator<T> listIterator() {
+        return new LinkedListIterator(head.next, 0);
+    }
+
+    /**
+     * 链表无法按索引直接定位到中间节点，因此拆分时从头部取出一批元素拷贝到数组中交给新的Spliterator，
+     * 批次大小逐次递增，使得并行流既能尽早开始并行，又不会因为批次过小而拆分过多
+     */
+    public Spliterator<T> spliterator() {
+        return new LinkedListSpliterator();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * 返回从index位置开始的列表迭代器，迭代器在游标处的add、set、remove均为O(1)
+     */
+    public ListIterator<T> listIterator(int index) {
+        return new LinkedListIterator(getNode(index), index);
     }
 
     private Node<T> getNode(int index) {
@@ -134,42 +167,176 @@ public class MyLinkedList<T> implements Iterable<T> {
         return result;
     }
 
-    class LinkedListIterator implements Iterator<T> {
+    class LinkedListSpliterator implements Spliterator<T> {
+
+        private static final int BATCH_UNIT = 1 << 10;//每次拆分时批次大小的增量
+        private static final int MAX_BATCH = 1 << 25;//单个批次的最大元素个数
+
+        private Node<T> current;//下一个待处理的节点，null表示尚未绑定，直到第一次使用时才从链表读取
+        private int est;//剩余元素个数
+        private int expectedModCount;
+        private int batch = 0;//上一次拆分出的批次大小
+
+        private int getEst() {
+            if (current == null) {
+                current = head.next;
+                est = size();
+                expectedModCount = modCount;
+            }
+            return est;
+        }
+
+        public Spliterator<T> trySplit() {
+            int s = getEst();
+            if (s <= 1 || current == tail) {
+                return null;
+            }
+            int n = Math.min(Math.min(batch + BATCH_UNIT, s), MAX_BATCH);
+            Object[] a = new Object[n];
+            int j = 0;
+            do {
+                a[j++] = current.data;
+                current = current.next;
+            } while (current != tail && j < n);
+            batch = j;
+            est = s - j;
+            return Spliterators.spliterator(a, 0, j, Spliterator.ORDERED);
+        }
+
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (getEst() <= 0 || current == tail) {
+                return false;
+            }
+            T data = current.data;
+            current = current.next;
+            est--;
+            action.accept(data);
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            getEst();
+            while (current != tail) {
+                T data = current.data;
+                current = current.next;
+                action.accept(data);
+            }
+            est = 0;
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
 
-        private Node<T> current = head.next;//初始化指向表头
+        public long estimateSize() {
+            return getEst();
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+    }
+
+    class LinkedListIterator implements ListIterator<T> {
+
+        private Node<T> current;//指向下一次调用next()将返回的节点
+        private Node<T> lastReturned = null;//最近一次next()或previous()返回的节点，set和remove作用于该节点
+        private int nextIndex;//current节点对应的索引
         private int expectedModCount = modCount;//增加modCount机制判定是否在迭代器迭代期间，原始链表发生结构性改变
-        private boolean okToRemove = false;//标识是否可以进行移除操作
+
+        LinkedListIterator(Node<T> current, int nextIndex) {
+            this.current = current;
+            this.nextIndex = nextIndex;
+        }
 
         public boolean hasNext() {
             return current != tail;
         }
 
         public T next() {
-            if (expectedModCount != modCount) {
-                throw new ConcurrentModificationException();
-            }
+            checkForComodification();
             if (current == tail) {
                 throw new NoSuchElementException();
             }
-            T result = current.data;
+            lastReturned = current;
             current = current.next;
-            okToRemove = true;
-            return result;
+            nextIndex++;
+            return lastReturned.data;
+        }
+
+        public boolean hasPrevious() {
+            return current.prev != head;
+        }
+
+        public T previous() {
+            checkForComodification();
+            if (current.prev == head) {
+                throw new NoSuchElementException();
+            }
+            current = current.prev;
+            lastReturned = current;
+            nextIndex--;
+            return lastReturned.data;
+        }
+
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        public int previousIndex() {
+            return nextIndex - 1;
         }
 
         public void remove() {
-            if (expectedModCount != modCount) {
-                throw new ConcurrentModificationException();
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
             }
-            if (!okToRemove) {
+            if (lastReturned == current) {
+                //刚调用过previous()，被删除的正是游标之后的节点，游标需要后移
+                current = current.next;
+            } else {
+                //和MyArrayList中不同的是，前驱节点的删除，不影响current节点(current不需要移动)，只需要修正索引
+                nextIndex--;
+            }
+            MyLinkedList.this.remove(lastReturned);
+            lastReturned = null;
+            expectedModCount++;
+        }
+
+        public void set(T t) {
+            checkForComodification();
+            if (lastReturned == null) {
                 throw new IllegalStateException();
             }
-            //和MyArrayList中不同的是，前驱节点的删除，不影响current节点(current不需要移动)
-            MyLinkedList.this.remove(current.prev);
-            okToRemove = false;
+            //替换元素不属于结构性改变，modCount无需变化
+            lastReturned.data = t;
+        }
+
+        public void add(T t) {
+            checkForComodification();
+            //在游标之前插入，之后调用next()返回的元素不受影响
+            addBefore(current, t);
+            nextIndex++;
+            lastReturned = null;
             expectedModCount++;
         }
 
+        private void checkForComodification() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
     }
 
 }
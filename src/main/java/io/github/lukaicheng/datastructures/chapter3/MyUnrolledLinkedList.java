@@ -0,0 +1,284 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * MyLinkedList的展开(unrolled)版本
+ *
+ * 每个节点不再只保存一个元素，而是保存一个小数组，从而把prev/next指针以及对象头的开销均摊到多个元素上，
+ * 同时相邻元素在内存中连续存放，迭代和按索引查找时需要跳转的节点数也减少为原来的1/nodeCapacity
+ *
+ * 插入时节点已满则对半分裂，删除后节点元素不足一半则与后继节点合并或从后继节点借用元素
+ *
+ */
+public class MyUnrolledLinkedList<T> implements Iterable<T> {
+    //默认每个节点容纳的元素个数
+    private static final int DEFAULT_NODE_CAPACITY = 16;
+    //每个节点容纳的元素个数
+    private final int nodeCapacity;
+    //与MyLinkedList一样，head和tail只作为端点标记，不保存元素
+    private Node<T> head;
+    private Node<T> tail;
+    //记录实际元素个数
+    private int size;
+    //当检测到表结构发生变化则进行递增
+    private int modCount = 0;
+
+    private static class Node<T> {
+
+        public Object[] elements;
+        public int count;
+        public Node<T> prev;
+        public Node<T> next;
+
+        public Node(int capacity, Node<T> prev, Node<T> next) {
+            this.elements = new Object[capacity];
+            this.prev = prev;
+            this.next = next;
+        }
+    }
+
+    /**
+     * 元素所在的节点以及在节点数组中的偏移量
+     */
+    private static class Position<T> {
+
+        public final Node<T> node;
+        public final int offset;
+
+        public Position(Node<T> node, int offset) {
+            this.node = node;
+            this.offset = offset;
+        }
+    }
+
+    public MyUnrolledLinkedList() {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    public MyUnrolledLinkedList(int nodeCapacity) {
+        if (nodeCapacity < 2) {
+            //容量至少为2才能进行分裂
+            throw new IllegalArgumentException("Illegal node capacity: " + nodeCapacity);
+        }
+        this.nodeCapacity = nodeCapacity;
+        clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        head = new Node<T>(0, null, null);
+        tail = new Node<T>(0, head, null);
+        head.next = tail;
+        size = 0;
+        modCount++;
+    }
+
+    public boolean add(T t) {
+        Node<T> last = tail.prev;
+        if (last == head || last.count == nodeCapacity) {
+            last = addNodeBefore(tail);
+        }
+        last.elements[last.count++] = t;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public void add(int index, T t) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (index == size()) {
+            add(t);
+            return;
+        }
+        Position<T> position = getPosition(index);
+        insertAt(position.node, position.offset, t);
+    }
+
+    public T get(int index) {
+        Position<T> position = getPosition(index);
+        return elementAt(position.node, position.offset);
+    }
+
+    public T set(int index, T t) {
+        Position<T> position = getPosition(index);
+        T oldValue = elementAt(position.node, position.offset);
+        position.node.elements[position.offset] = t;
+        return oldValue;
+    }
+
+    public T remove(int index) {
+        Position<T> position = getPosition(index);
+        return removeAt(position.node, position.offset);
+    }
+
+    public Iterator<T> iterator() {
+        return new UnrolledLinkedListIterator();
+    }
+
+    private Position<T> getPosition(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        //与MyLinkedList一样借助两个端点标记从更近的一端开始查找，但每一步跳过整个节点
+        if (index < size() / 2) {
+            Node<T> node = head.next;
+            int offset = index;
+            while (offset >= node.count) {
+                offset -= node.count;
+                node = node.next;
+            }
+            return new Position<T>(node, offset);
+        } else {
+            Node<T> node = tail.prev;
+            int start = size() - node.count;
+            while (index < start) {
+                node = node.prev;
+                start -= node.count;
+            }
+            return new Position<T>(node, index - start);
+        }
+    }
+
+    private Node<T> addNodeBefore(Node<T> node) {
+        Node<T> newNode = new Node<T>(nodeCapacity, node.prev, node);
+        newNode.prev.next = newNode;
+        node.prev = newNode;
+        return newNode;
+    }
+
+    private void unlink(Node<T> node) {
+        node.next.prev = node.prev;
+        node.prev.next = node.next;
+    }
+
+    private void insertAt(Node<T> node, int offset, T t) {
+        if (node.count == nodeCapacity) {
+            //节点已满，将后一半元素分裂到新的后继节点中
+            Node<T> newNode = addNodeBefore(node.next);
+            int half = node.count / 2;
+            int moved = node.count - half;
+            System.arraycopy(node.elements, half, newNode.elements, 0, moved);
+            clearSlots(node, half, node.count);
+            node.count = half;
+            newNode.count = moved;
+            if (offset > half) {
+                node = newNode;
+                offset -= half;
+            }
+        }
+        System.arraycopy(node.elements, offset, node.elements, offset + 1, node.count - offset);
+        node.elements[offset] = t;
+        node.count++;
+        size++;
+        modCount++;
+    }
+
+    private T removeAt(Node<T> node, int offset) {
+        T removeElement = elementAt(node, offset);
+        System.arraycopy(node.elements, offset + 1, node.elements, offset, node.count - offset - 1);
+        node.elements[--node.count] = null;
+        if (node.count == 0) {
+            unlink(node);
+        } else if (node.count < nodeCapacity / 2 && node.next != tail) {
+            Node<T> next = node.next;
+            if (node.count + next.count <= nodeCapacity) {
+                //与后继节点合并
+                System.arraycopy(next.elements, 0, node.elements, node.count, next.count);
+                node.count += next.count;
+                unlink(next);
+            } else {
+                //后继节点元素较多，从中借用一个元素以维持至少半满
+                node.elements[node.count++] = next.elements[0];
+                System.arraycopy(next.elements, 1, next.elements, 0, next.count - 1);
+                next.elements[--next.count] = null;
+            }
+        }
+        size--;
+        modCount++;
+        return removeElement;
+    }
+
+    private void clearSlots(Node<T> node, int from, int to) {
+        for (int i = from; i < to; i++) {
+            node.elements[i] = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(Node<T> node, int offset) {
+        return (T) node.elements[offset];
+    }
+
+    class UnrolledLinkedListIterator implements Iterator<T> {
+
+        //下一个待返回元素所在的节点及偏移量，节点为tail表示迭代结束
+        private Node<T> current = head.next;
+        private int offset = 0;
+        //上一次返回的元素的位置，用于remove
+        private Node<T> lastNode;
+        private int lastOffset;
+        private int expectedModCount = modCount;
+        private boolean okToRemove = false;
+
+        public boolean hasNext() {
+            return current != tail;
+        }
+
+        public T next() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (current == tail) {
+                throw new NoSuchElementException();
+            }
+            lastNode = current;
+            lastOffset = offset;
+            T result = elementAt(current, offset++);
+            if (offset == current.count) {
+                current = current.next;
+                offset = 0;
+            }
+            okToRemove = true;
+            return result;
+        }
+
+        public void remove() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!okToRemove) {
+                throw new IllegalStateException();
+            }
+            Node<T> next = lastNode.next;
+            removeAt(lastNode, lastOffset);
+            //删除后下一个元素恰好移动到被删除元素的位置上，节点被移除时则位于原后继节点的起始位置
+            if (lastNode.count == 0) {
+                current = next;
+                offset = 0;
+            } else {
+                current = lastNode;
+                offset = lastOffset;
+                if (offset == current.count) {
+                    current = current.next;
+                    offset = 0;
+                }
+            }
+            okToRemove = false;
+            expectedModCount++;
+        }
+
+    }
+
+}
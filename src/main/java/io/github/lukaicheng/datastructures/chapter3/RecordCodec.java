@@ -0,0 +1,28 @@
+package io.github.lukaicheng.datastructures.chapter3;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 定长记录的编解码器，供MappedArrayList将元素直接读写到堆外内存中
+ *
+ * 实现类只能使用绝对位置的get/put方法访问buffer，且读写的字节数不能超过recordSize()
+ *
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * 每条记录占用的字节数，必须是固定值
+     */
+    int recordSize();
+
+    /**
+     * 将元素编码写入buffer中从offset开始的recordSize()个字节
+     */
+    void write(ByteBuffer buffer, int offset, T t);
+
+    /**
+     * 从buffer中offset开始的recordSize()个字节解码出元素
+     */
+    T read(ByteBuffer buffer, int offset);
+
+}
@@ -1,19 +1,27 @@
 package io.github.lukaicheng.datastructures.chapter4;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * Chapter 4.4 AVL树示例
  * 
  * AVL树：每个节点的左子树和右子树的高度最多差1的二叉查找树(空树高度定义为-1)
  * 在高度为h的AVL树中，最少节点数S(h) = S(h-1) + S(h-2) + 1
  * 
+ * 每个节点额外记录以其为根的子树节点数，从而支持O(logN)的按名次查找(select)和求名次(rank)
+ * 
  */
-public class AVLTree<T extends Comparable<? super T>> {
+public class AVLTree<T extends Comparable<? super T>> implements Iterable<T> {
 
-    private AVLNode<T> root;
+    /**
+     * 由S(h)可知树高不超过1.44log(n+2)，对于int范围内的节点数，高度远小于64，
+     * 因此插入和删除时用固定长度的数组记录从根到目标节点的路径，并用一个long的各个位记录每一步的方向，以此代替递归
+     */
+    private static final int MAX_DEPTH = 64;
 
-    public void insert(T t) {
-        insert(t, root);
-    }
+    private AVLNode<T> root;
 
     private static class AVLNode<T> {
 
@@ -21,6 +29,7 @@ public class AVLTree<T extends Comparable<? super T>> {
         AVLNode<T> left;
         AVLNode<T> right;
         int height;
+        int size;//以该节点为根的子树节点数
 
         AVLNode(T t) {
             this(t, null, null);
@@ -31,43 +40,502 @@ public class AVLTree<T extends Comparable<? super T>> {
             this.left = left;
             this.right = right;
             this.height = 0;
+            this.size = 1;
         }
     }
 
-    private AVLNode<T> insert(T x, AVLNode<T> tree) {
-        if (tree == null) {
-            return new AVLNode<T>(x);
+    /**
+     * 由有序数组直接构造完全平衡的AVL树，时间复杂度O(N)，相邻的重复元素只保留一个
+     *
+     * @throws IllegalArgumentException 数组不是升序时抛出
+     */
+    public static <T extends Comparable<? super T>> AVLTree<T> fromSorted(T[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i].compareTo(sorted[i - 1]) <= 0) {
+                //存在重复或逆序的元素，在副本上去重，不修改调用者的数组
+                Object[] buffer = sorted.clone();
+                return fromBuffer(buffer, distinct(buffer, buffer.length));
+            }
         }
-        int compareResult = x.compareTo(tree.element);
-        if (compareResult < 0) {
-            tree.left = insert(x, tree.left);
-            if (height(tree.left) - height(tree.right) == 2) {
-                if (x.compareTo(tree.left.element) < 0) {
-                    //左左情况 - 单旋转
-                    tree = rotateWithLeftChild(tree);
-                } else {
-                    //左右情况 - 双旋转
-                    tree = doubleWithLeftChild(tree);
+        return fromBuffer(sorted, sorted.length);
+    }
+
+    /**
+     * 由升序的迭代器构造完全平衡的AVL树，元素先被缓存到数组中，时间复杂度O(N)
+     *
+     * @throws IllegalArgumentException 迭代器返回的元素不是升序时抛出
+     */
+    public static <T extends Comparable<? super T>> AVLTree<T> fromSorted(Iterator<? extends T> sorted) {
+        Object[] buffer = new Object[16];
+        int count = 0;
+        while (sorted.hasNext()) {
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, count * 2);
+            }
+            buffer[count++] = sorted.next();
+        }
+        return fromBuffer(buffer, distinct(buffer, count));
+    }
+
+    /**
+     * 返回包含两棵树全部元素的新树，两棵树本身保持不变
+     *
+     * 同时按中序遍历两棵树做归并，再由归并结果直接构造，时间复杂度O(M + N)，
+     * 而逐个插入较小的树需要O(MlogN)
+     */
+    public AVLTree<T> union(AVLTree<T> other) {
+        Object[] merged = new Object[size() + other.size()];
+        int count = 0;
+        Iterator<T> a = iterator();
+        Iterator<T> b = other.iterator();
+        T x = a.hasNext() ? a.next() : null;
+        T y = b.hasNext() ? b.next() : null;
+        while (x != null && y != null) {
+            int compareResult = x.compareTo(y);
+            if (compareResult <= 0) {
+                merged[count++] = x;
+                x = a.hasNext() ? a.next() : null;
+                if (compareResult == 0) {
+                    //两棵树中都存在的元素只保留一个
+                    y = b.hasNext() ? b.next() : null;
                 }
+            } else {
+                merged[count++] = y;
+                y = b.hasNext() ? b.next() : null;
+            }
+        }
+        for (; x != null; x = a.hasNext() ? a.next() : null) {
+            merged[count++] = x;
+        }
+        for (; y != null; y = b.hasNext() ? b.next() : null) {
+            merged[count++] = y;
+        }
+        return fromBuffer(merged, count);
+    }
+
+    /**
+     * 把other中的元素全部并入当前树，时间复杂度O(M + N)
+     */
+    public void merge(AVLTree<T> other) {
+        root = union(other).root;
+    }
+
+    public void makeEmpty() {
+        root = null;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * 返回第k小的元素，k从0开始计数
+     */
+    public T select(int k) {
+        if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        AVLNode<T> node = root;
+        for (;;) {
+            int leftSize = size(node.left);
+            if (k < leftSize) {
+                node = node.left;
+            } else if (k > leftSize) {
+                //跳过左子树和当前节点
+                k -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.element;
+            }
+        }
+    }
+
+    /**
+     * 返回树中严格小于x的元素个数
+     */
+    public int rank(T x) {
+        int rank = 0;
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compareResult = x.compareTo(node.element);
+            if (compareResult <= 0) {
+                node = node.left;
+            } else {
+                //当前节点及其左子树都小于x
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 返回树中位于闭区间[lo, hi]内的元素个数
+     */
+    public int countInRange(T lo, T hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        return rank(hi) - rank(lo) + (contains(hi) ? 1 : 0);
+    }
+
+    public boolean contains(T t) {
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compareResult = t.compareTo(node.element);
+            if (compareResult == 0) {
+                return true;
+            }
+            node = compareResult < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    public T findMin() {
+        if (isEmpty()) {
+            return null;
+        }
+        AVLNode<T> node = root;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.element;
+    }
+
+    public T findMax() {
+        if (isEmpty()) {
+            return null;
+        }
+        AVLNode<T> node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.element;
+    }
+
+    /**
+     * 返回小于等于x的最大元素，不存在时返回null
+     */
+    public T floor(T x) {
+        T result = null;
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compareResult = x.compareTo(node.element);
+            if (compareResult == 0) {
+                return node.element;
+            } else if (compareResult < 0) {
+                node = node.left;
+            } else {
+                //当前节点是候选，继续往右子树寻找更接近的
+                result = node.element;
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回大于等于x的最小元素，不存在时返回null
+     */
+    public T ceiling(T x) {
+        T result = null;
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compareResult = x.compareTo(node.element);
+            if (compareResult == 0) {
+                return node.element;
+            } else if (compareResult > 0) {
+                node = node.right;
+            } else {
+                result = node.element;
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回严格小于x的最大元素，不存在时返回null
+     */
+    public T lower(T x) {
+        T result = null;
+        AVLNode<T> node = root;
+        while (node != null) {
+            if (x.compareTo(node.element) > 0) {
+                result = node.element;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回严格大于x的最小元素，不存在时返回null
+     */
+    public T higher(T x) {
+        T result = null;
+        AVLNode<T> node = root;
+        while (node != null) {
+            if (x.compareTo(node.element) < 0) {
+                result = node.element;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按从小到大的顺序惰性地遍历全部元素
+     */
+    public Iterator<T> iterator() {
+        return new InOrderIterator(null, null);
+    }
+
+    /**
+     * 返回闭区间[lo, hi]内元素的惰性视图，迭代时直接从lo所在位置开始，取出k个元素的代价为O(logN + k)
+     */
+    public Iterable<T> range(final T lo, final T hi) {
+        return new Iterable<T>() {
+            public Iterator<T> iterator() {
+                return new InOrderIterator(lo, hi);
+            }
+        };
+    }
+
+    public void insert(T x) {
+        AVLNode<T>[] path = newPath();
+        long leftBits = 0;//第i位为1表示从path[i]往左走
+        int depth = 0;
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compareResult = x.compareTo(node.element);
+            if (compareResult == 0) {
+                //已存在，无需在重复插入
+                return;
+            }
+            if (compareResult < 0) {
+                leftBits |= 1L << depth;
+            }
+            path[depth++] = node;
+            node = compareResult < 0 ? node.left : node.right;
+        }
+        retrace(path, leftBits, depth, new AVLNode<T>(x));
+    }
+
+    public void remove(T x) {
+        AVLNode<T>[] path = newPath();
+        long leftBits = 0;
+        int depth = 0;
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compareResult = x.compareTo(node.element);
+            if (compareResult == 0) {
+                break;
             }
-        } else if (compareResult > 0) {
-            tree.right = insert(x, tree.right);
-            if (height(tree.right) - height(tree.left) == 2) {
-                if (x.compareTo(tree.right.element) > 0) {
-                    //右右情况 - 单旋转
-                    tree = rotateWithRightChild(tree);
+            if (compareResult < 0) {
+                leftBits |= 1L << depth;
+            }
+            path[depth++] = node;
+            node = compareResult < 0 ? node.left : node.right;
+        }
+        if (node == null) {
+            //元素不存在
+            return;
+        }
+        if (node.left != null && node.right != null) {
+            //左右子树都存在，用右子树最小节点替代被删除节点，转而删除那个最多只有右儿子的节点
+            path[depth++] = node;
+            AVLNode<T> min = node.right;
+            while (min.left != null) {
+                leftBits |= 1L << depth;
+                path[depth++] = min;
+                min = min.left;
+            }
+            node.element = min.element;
+            node = min;
+        }
+        retrace(path, leftBits, depth, (node.left != null) ? node.left : node.right);
+    }
+
+    /**
+     * 中序遍历迭代器，AVL树高度有界，因此显式栈同样使用固定长度的数组，迭代过程中不再分配内存
+     * 
+     * 迭代期间只允许通过迭代器自身的remove修改树
+     */
+    class InOrderIterator implements Iterator<T> {
+
+        private final AVLNode<T>[] stack = newPath();
+        private int top = 0;//栈中节点个数
+        private final T hi;//上界(包含)，null表示没有上界
+        private T lastReturned;
+
+        InOrderIterator(T lo, T hi) {
+            this.hi = hi;
+            seek(lo, true);
+        }
+
+        /**
+         * 把所有大于(或等于)from的元素中，位于查找路径上的节点压入栈，栈顶即为第一个满足条件的元素
+         */
+        private void seek(T from, boolean inclusive) {
+            top = 0;
+            AVLNode<T> node = root;
+            while (node != null) {
+                int compareResult = from == null ? -1 : from.compareTo(node.element);
+                if (compareResult < 0 || (compareResult == 0 && inclusive)) {
+                    stack[top++] = node;
+                    node = node.left;
                 } else {
-                    //右左情况 - 双旋转
-                    tree = doubleWithRightChild(tree);
+                    node = node.right;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return top > 0 && (hi == null || stack[top - 1].element.compareTo(hi) <= 0);
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            AVLNode<T> node = stack[--top];
+            //下一个元素是右子树中的最小元素
+            for (AVLNode<T> child = node.right; child != null; child = child.left) {
+                stack[top++] = child;
+            }
+            lastReturned = node.element;
+            return lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            //删除会引起旋转，因此删除后重新定位到第一个大于被删除元素的位置
+            AVLTree.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+        }
+
+    }
+
+    /**
+     * 校验buffer的前count个元素为升序，并原地去除相邻的重复元素
+     *
+     * @return 去重后的元素个数
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<? super T>> int distinct(Object[] buffer, int count) {
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            T t = (T) buffer[i];
+            if (distinct > 0) {
+                int compareResult = t.compareTo((T) buffer[distinct - 1]);
+                if (compareResult < 0) {
+                    throw new IllegalArgumentException("input is not sorted at index " + i);
                 }
+                if (compareResult == 0) {
+                    continue;
+                }
+            }
+            buffer[distinct++] = t;
+        }
+        return distinct;
+    }
+
+    private static <T extends Comparable<? super T>> AVLTree<T> fromBuffer(Object[] buffer, int count) {
+        AVLTree<T> tree = new AVLTree<T>();
+        tree.root = build(buffer, 0, count - 1);
+        return tree;
+    }
+
+    /**
+     * 以中间元素为根递归构造[lo, hi]内的子树，左右子树的节点数最多差1，因此高度也最多差1
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> AVLNode<T> build(Object[] buffer, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        AVLNode<T> node = new AVLNode<T>((T) buffer[mid], build(buffer, lo, mid - 1), build(buffer, mid + 1, hi));
+        node.height = Math.max(node.left == null ? -1 : node.left.height,
+                node.right == null ? -1 : node.right.height) + 1;
+        node.size = hi - lo + 1;
+        return node;
+    }
+
+    /**
+     * 自底向上沿着路径把新的子树挂回父节点，并对路径上的每个节点重新平衡
+     * 
+     * @param subtree 替换path[depth-1]对应方向上儿子的新子树
+     */
+    private void retrace(AVLNode<T>[] path, long leftBits, int depth, AVLNode<T> subtree) {
+        boolean settled = false;
+        for (int i = depth - 1; i >= 0; i--) {
+            AVLNode<T> parent = path[i];
+            if (settled) {
+                //更上层的祖先无需重新平衡，但子树节点数仍然发生了变化
+                updateSize(parent);
+                continue;
+            }
+            if ((leftBits & (1L << i)) != 0) {
+                parent.left = subtree;
+            } else {
+                parent.right = subtree;
+            }
+            int oldHeight = parent.height;
+            subtree = balance(parent);
+            if (subtree == parent && parent.height == oldHeight) {
+                //该子树的根和高度都没有变化，更上层的祖先不需要重新挂接和平衡
+                settled = true;
+            }
+        }
+        if (!settled) {
+            root = subtree;
+        }
+    }
+
+    /**
+     * 假定tree的左右子树都已平衡且高度差最多为2，通过旋转恢复tree的平衡并返回新的子树根节点
+     */
+    private AVLNode<T> balance(AVLNode<T> tree) {
+        if (height(tree.left) - height(tree.right) > 1) {
+            if (height(tree.left.left) >= height(tree.left.right)) {
+                //左左情况 - 单旋转
+                tree = rotateWithLeftChild(tree);
+            } else {
+                //左右情况 - 双旋转
+                tree = doubleWithLeftChild(tree);
+            }
+        } else if (height(tree.right) - height(tree.left) > 1) {
+            if (height(tree.right.right) >= height(tree.right.left)) {
+                //右右情况 - 单旋转
+                tree = rotateWithRightChild(tree);
+            } else {
+                //右左情况 - 双旋转
+                tree = doubleWithRightChild(tree);
             }
-        } else {
-            //已存在，无需在重复插入
         }
         tree.height = Math.max(height(tree.left), height(tree.right)) + 1;
+        updateSize(tree);
         return tree;
     }
 
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private AVLNode<T>[] newPath() {
+        return new AVLNode[MAX_DEPTH];
+    }
+
     /**
      * 左左情况-单旋转(右旋)
      */
@@ -77,6 +545,9 @@ public class AVLTree<T extends Comparable<? super T>> {
         pivot.right = tree;
         tree.height = Math.max(height(tree.left), height(tree.right)) + 1;
         pivot.height = Math.max(height(pivot.left), tree.height) + 1;
+        //tree成为pivot的儿子，需要先更新tree
+        updateSize(tree);
+        updateSize(pivot);
         return pivot;
     }
 
@@ -89,6 +560,8 @@ public class AVLTree<T extends Comparable<? super T>> {
         pivot.left = tree;
         tree.height = Math.max(height(tree.left), height(tree.right)) + 1;
         pivot.height = Math.max(tree.height, height(pivot.right)) + 1;
+        updateSize(tree);
+        updateSize(pivot);
         return pivot;
     }
 
@@ -118,4 +591,15 @@ public class AVLTree<T extends Comparable<? super T>> {
     private int height(AVLNode<T> tree) {
         return tree == null ? -1 : tree.height;
     }
+
+    /**
+     * 返回子树的节点数，如果是空树，则返回0
+     */
+    private int size(AVLNode<T> tree) {
+        return tree == null ? 0 : tree.size;
+    }
+
+    private void updateSize(AVLNode<T> tree) {
+        tree.size = size(tree.left) + size(tree.right) + 1;
+    }
 }
@@ -0,0 +1,460 @@
+package io.github.lukaicheng.datastructures.chapter4;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Chapter 4.7 B树示例(B+树实现)
+ *
+ * M阶B+树：非叶节点最多有M个儿子、M-1个关键字，所有数据都存放在叶子中，叶子之间按顺序串成链表。
+ * 除根以外的节点至少是半满的，因此树高只有O(log_M N)，远低于二叉查找树。
+ *
+ * 每个节点的关键字连续存放在一个数组中，节点内部使用二分查找。与AVLTree每个元素一个节点相比，
+ * 查找时需要跳转的节点数更少，每次跳转后访问的也是相邻的内存，同时节省了大量的节点对象和指针开销
+ *
+ */
+public class BTree<T extends Comparable<? super T>> implements Iterable<T> {
+
+    private static final int DEFAULT_ORDER = 64;
+
+    //阶数，即非叶节点最多的儿子数
+    private final int order;
+    //每个节点最多的关键字个数
+    private final int maxKeys;
+    //除根以外每个节点最少的关键字个数
+    private final int minKeys;
+    private Node root;
+    private int size;
+
+    /**
+     * 节点的公共部分，数组比最大容量多留一个位置，使得插入时可以先放入再分裂
+     */
+    private abstract class Node {
+
+        Object[] keys = new Object[maxKeys + 1];
+        int count;
+
+        /**
+         * 在keys[0, count)中二分查找，找到时返回下标，否则返回-(插入位置)-1
+         */
+        int search(T t) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int compareResult = key(mid).compareTo(t);
+                if (compareResult < 0) {
+                    low = mid + 1;
+                } else if (compareResult > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        T key(int index) {
+            return (T) keys[index];
+        }
+
+        void insertKey(int index, Object key) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            keys[index] = key;
+            count++;
+        }
+
+        void removeKey(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            keys[--count] = null;
+        }
+    }
+
+    private class Leaf extends Node {
+
+        Leaf next;
+    }
+
+    /**
+     * 非叶节点：children[i]中的关键字都小于keys[i]，children[i+1]中的关键字都大于等于keys[i]
+     */
+    private class Inner extends Node {
+
+        Node[] children = allocateChildren(maxKeys + 2);
+
+        /**
+         * 返回关键字t所在的儿子下标
+         */
+        int childIndex(T t) {
+            int pos = search(t);
+            return pos >= 0 ? pos + 1 : -(pos + 1);
+        }
+
+        void insertChild(int index, Node child) {
+            System.arraycopy(children, index, children, index + 1, count + 1 - index);
+            children[index] = child;
+        }
+
+        void removeChild(int index) {
+            //儿子个数为count+1
+            System.arraycopy(children, index + 1, children, index, count - index);
+            children[count] = null;
+        }
+    }
+
+    /**
+     * 节点分裂的结果：需要插入父节点的分隔关键字以及新的右兄弟
+     */
+    private class Split {
+
+        final Object key;
+        final Node right;
+
+        Split(Object key, Node right) {
+            this.key = key;
+            this.right = right;
+        }
+    }
+
+    public BTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    public BTree(int order) {
+        if (order < 4) {
+            throw new IllegalArgumentException("Illegal order: " + order);
+        }
+        this.order = order;
+        this.maxKeys = order - 1;
+        this.minKeys = (order - 1) / 2;
+        makeEmpty();
+    }
+
+    public void makeEmpty() {
+        root = new Leaf();
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int order() {
+        return order;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean contains(T t) {
+        Node node = root;
+        while (node instanceof BTree.Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[inner.childIndex(t)];
+        }
+        return node.search(t) >= 0;
+    }
+
+    public T findMin() {
+        if (isEmpty()) {
+            return null;
+        }
+        return firstLeaf().key(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T findMax() {
+        if (isEmpty()) {
+            return null;
+        }
+        Node node = root;
+        while (node instanceof BTree.Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[inner.count];
+        }
+        return node.key(node.count - 1);
+    }
+
+    public void insert(T t) {
+        Split split = insert(t, root);
+        if (split != null) {
+            //根节点分裂，树长高一层
+            Inner newRoot = new Inner();
+            newRoot.keys[0] = split.key;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.count = 1;
+            root = newRoot;
+        }
+    }
+
+    public void remove(T t) {
+        if (remove(t, root)) {
+            if (root instanceof BTree.Inner && root.count == 0) {
+                //根节点只剩一个儿子，树降低一层
+                root = ((Inner) root).children[0];
+            }
+        }
+    }
+
+    /**
+     * 按从小到大的顺序沿叶子链表遍历全部元素
+     */
+    public Iterator<T> iterator() {
+        return new LeafIterator(null, null);
+    }
+
+    /**
+     * 返回闭区间[lo, hi]内元素的惰性视图
+     */
+    public Iterable<T> range(final T lo, final T hi) {
+        return new Iterable<T>() {
+            public Iterator<T> iterator() {
+                return new LeafIterator(lo, hi);
+            }
+        };
+    }
+
+    /**
+     * 树高为O(log_M N)，递归深度很小，因此插入和删除直接采用递归实现
+     *
+     * @return 节点发生分裂时返回分裂结果，否则返回null
+     */
+    @SuppressWarnings("unchecked")
+    private Split insert(T t, Node node) {
+        if (node instanceof BTree.Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = leaf.search(t);
+            if (pos >= 0) {
+                //已存在，无需重复插入
+                return null;
+            }
+            leaf.insertKey(-(pos + 1), t);
+            size++;
+            return leaf.count > maxKeys ? splitLeaf(leaf) : null;
+        }
+        Inner inner = (Inner) node;
+        int index = inner.childIndex(t);
+        Split split = insert(t, inner.children[index]);
+        if (split == null) {
+            return null;
+        }
+        //insertChild依赖插入前的count，因此先插入儿子再插入关键字
+        inner.insertChild(index + 1, split.right);
+        inner.insertKey(index, split.key);
+        return inner.count > maxKeys ? splitInner(inner) : null;
+    }
+
+    private Split splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf();
+        int half = leaf.count / 2;
+        right.count = leaf.count - half;
+        System.arraycopy(leaf.keys, half, right.keys, 0, right.count);
+        clear(leaf.keys, half, leaf.count);
+        leaf.count = half;
+        right.next = leaf.next;
+        leaf.next = right;
+        //B+树的叶子分裂时，把右半部分的第一个关键字复制到父节点
+        return new Split(right.keys[0], right);
+    }
+
+    private Split splitInner(Inner inner) {
+        Inner right = new Inner();
+        int mid = inner.count / 2;
+        Object separator = inner.keys[mid];
+        right.count = inner.count - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.count + 1);
+        clear(inner.keys, mid, inner.count);
+        clear(inner.children, mid + 1, inner.count + 1);
+        inner.count = mid;
+        //非叶节点分裂时，中间的关键字上移到父节点
+        return new Split(separator, right);
+    }
+
+    /**
+     * @return 是否删除了元素
+     */
+    @SuppressWarnings("unchecked")
+    private boolean remove(T t, Node node) {
+        if (node instanceof BTree.Leaf) {
+            int pos = node.search(t);
+            if (pos < 0) {
+                return false;
+            }
+            node.removeKey(pos);
+            size--;
+            return true;
+        }
+        Inner inner = (Inner) node;
+        int index = inner.childIndex(t);
+        if (!remove(t, inner.children[index])) {
+            return false;
+        }
+        if (inner.children[index].count < minKeys) {
+            rebalance(inner, index);
+        }
+        return true;
+    }
+
+    /**
+     * 儿子节点的关键字不足时，先尝试从相邻的兄弟借一个，兄弟也只剩最少关键字时则与兄弟合并
+     */
+    @SuppressWarnings("unchecked")
+    private void rebalance(Inner parent, int index) {
+        Node child = parent.children[index];
+        Node left = index > 0 ? parent.children[index - 1] : null;
+        Node right = index < parent.count ? parent.children[index + 1] : null;
+        boolean isLeaf = child instanceof BTree.Leaf;
+        if (left != null && left.count > minKeys) {
+            if (isLeaf) {
+                child.insertKey(0, left.keys[left.count - 1]);
+                left.removeKey(left.count - 1);
+                parent.keys[index - 1] = child.keys[0];
+            } else {
+                //父节点的分隔关键字下移，左兄弟的最后一个关键字上移
+                Inner leftInner = (Inner) left;
+                Inner childInner = (Inner) child;
+                childInner.insertChild(0, leftInner.children[leftInner.count]);
+                childInner.insertKey(0, parent.keys[index - 1]);
+                parent.keys[index - 1] = leftInner.keys[leftInner.count - 1];
+                leftInner.children[leftInner.count] = null;
+                leftInner.removeKey(leftInner.count - 1);
+            }
+        } else if (right != null && right.count > minKeys) {
+            if (isLeaf) {
+                child.insertKey(child.count, right.keys[0]);
+                right.removeKey(0);
+                parent.keys[index] = right.keys[0];
+            } else {
+                Inner rightInner = (Inner) right;
+                Inner childInner = (Inner) child;
+                childInner.children[childInner.count + 1] = rightInner.children[0];
+                childInner.insertKey(childInner.count, parent.keys[index]);
+                parent.keys[index] = rightInner.keys[0];
+                rightInner.removeChild(0);
+                rightInner.removeKey(0);
+            }
+        } else if (left != null) {
+            merge(parent, index - 1);
+        } else {
+            merge(parent, index);
+        }
+    }
+
+    /**
+     * 将parent的第index+1个儿子合并到第index个儿子中
+     */
+    @SuppressWarnings("unchecked")
+    private void merge(Inner parent, int index) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+        if (left instanceof BTree.Leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            left.count += right.count;
+            ((Leaf) left).next = ((Leaf) right).next;
+        } else {
+            //非叶节点合并时，父节点中的分隔关键字需要一同下移
+            Inner leftInner = (Inner) left;
+            Inner rightInner = (Inner) right;
+            leftInner.keys[leftInner.count] = parent.keys[index];
+            System.arraycopy(rightInner.keys, 0, leftInner.keys, leftInner.count + 1, rightInner.count);
+            System.arraycopy(rightInner.children, 0, leftInner.children, leftInner.count + 1, rightInner.count + 1);
+            leftInner.count += rightInner.count + 1;
+        }
+        parent.removeChild(index + 1);
+        parent.removeKey(index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Leaf firstLeaf() {
+        Node node = root;
+        while (node instanceof BTree.Inner) {
+            node = ((Inner) node).children[0];
+        }
+        return (Leaf) node;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Node[] allocateChildren(int length) {
+        return new BTree.Node[length];
+    }
+
+    private static void clear(Object[] array, int from, int to) {
+        for (int i = from; i < to; i++) {
+            array[i] = null;
+        }
+    }
+
+    /**
+     * 沿叶子链表遍历的迭代器，迭代期间只允许通过迭代器自身的remove修改树
+     */
+    class LeafIterator implements Iterator<T> {
+
+        private Leaf leaf;
+        private int index;
+        private final T hi;//上界(包含)，null表示没有上界
+        private T lastReturned;
+
+        LeafIterator(T lo, T hi) {
+            this.hi = hi;
+            seek(lo, true);
+        }
+
+        /**
+         * 定位到第一个大于(或等于)from的元素
+         */
+        @SuppressWarnings("unchecked")
+        private void seek(T from, boolean inclusive) {
+            if (from == null) {
+                leaf = firstLeaf();
+                index = 0;
+            } else {
+                Node node = root;
+                while (node instanceof BTree.Inner) {
+                    Inner inner = (Inner) node;
+                    node = inner.children[inner.childIndex(from)];
+                }
+                leaf = (Leaf) node;
+                int pos = leaf.search(from);
+                index = pos >= 0 ? (inclusive ? pos : pos + 1) : -(pos + 1);
+            }
+            skipExhaustedLeaves();
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index >= leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+
+        public boolean hasNext() {
+            return leaf != null && (hi == null || leaf.key(index).compareTo(hi) <= 0);
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = leaf.key(index++);
+            skipExhaustedLeaves();
+            return lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            //删除可能引起节点的借用与合并，因此删除后重新定位到第一个大于被删除元素的位置
+            BTree.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+        }
+
+    }
+
+}
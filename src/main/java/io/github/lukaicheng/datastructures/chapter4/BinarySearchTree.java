@@ -1,5 +1,10 @@
 package io.github.lukaicheng.datastructures.chapter4;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * Chapter 4.3 二叉查找树示例
  * 
@@ -7,7 +12,7 @@ package io.github.lukaicheng.datastructures.chapter4;
  * 二叉查找树：在二叉树的基础上，它添加了一个限制条件，即对于树中每个节点X，其左子树中所有项的值小于X中的项，而有右子树中所有项的值大于X中的项
  * 
  */
-public class BinarySearchTree<T extends Comparable<? super T>> {
+public class BinarySearchTree<T extends Comparable<? super T>> implements Iterable<T> {
 
     private static class BinaryNode<T> {
 
@@ -63,6 +68,100 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
         root = remove(t, root);
     }
 
+    /**
+     * 返回小于等于t的最大元素，不存在时返回null
+     */
+    public T floor(T t) {
+        T result = null;
+        BinaryNode<T> node = root;
+        while (node != null) {
+            int compareResult = t.compareTo(node.element);
+            if (compareResult == 0) {
+                return node.element;
+            } else if (compareResult < 0) {
+                node = node.left;
+            } else {
+                //当前节点是候选，继续往右子树寻找更接近的
+                result = node.element;
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回大于等于t的最小元素，不存在时返回null
+     */
+    public T ceiling(T t) {
+        T result = null;
+        BinaryNode<T> node = root;
+        while (node != null) {
+            int compareResult = t.compareTo(node.element);
+            if (compareResult == 0) {
+                return node.element;
+            } else if (compareResult > 0) {
+                node = node.right;
+            } else {
+                result = node.element;
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回严格小于t的最大元素，不存在时返回null
+     */
+    public T lower(T t) {
+        T result = null;
+        BinaryNode<T> node = root;
+        while (node != null) {
+            if (t.compareTo(node.element) > 0) {
+                result = node.element;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 返回严格大于t的最小元素，不存在时返回null
+     */
+    public T higher(T t) {
+        T result = null;
+        BinaryNode<T> node = root;
+        while (node != null) {
+            if (t.compareTo(node.element) < 0) {
+                result = node.element;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按从小到大的顺序惰性地遍历全部元素
+     */
+    public Iterator<T> iterator() {
+        return new InOrderIterator(null, null);
+    }
+
+    /**
+     * 返回闭区间[lo, hi]内元素的惰性视图，迭代时直接从lo所在位置开始，
+     * 取出k个元素的代价为O(h + k)，h为树的高度
+     */
+    public Iterable<T> range(final T lo, final T hi) {
+        return new Iterable<T>() {
+            public Iterator<T> iterator() {
+                return new InOrderIterator(lo, hi);
+            }
+        };
+    }
+
     public void printTree() {
         if (isEmpty()) {
             System.out.println("Empty tree");
@@ -71,42 +170,41 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
         }
     }
 
+    /**
+     * 以下内部方法均采用循环而非递归实现：二叉查找树不做平衡，顺序插入时会退化成链表，递归深度与元素个数相同，容易导致栈溢出
+     */
     private boolean contains(T t, BinaryNode<T> node) {
-        if (node == null) {
-            return false;
-        }
-        int result = t.compareTo(node.element);
-        if (result == 0) {
-            return true;
-        } else if (result < 0) {//小于当前根元素，则往左子树查找
-            return contains(t, node.left);
-        } else {//大于当前根元素，则往右子树查找
-            return contains(t, node.right);
+        while (node != null) {
+            int result = t.compareTo(node.element);
+            if (result == 0) {
+                return true;
+            } else if (result < 0) {//小于当前根元素，则往左子树查找
+                node = node.left;
+            } else {//大于当前根元素，则往右子树查找
+                node = node.right;
+            }
         }
+        return false;
     }
 
     private BinaryNode<T> findMin(BinaryNode<T> node) {
         if (node == null) {
             return null;
         }
-        BinaryNode<T> left = node.left;
-        if (left == null) {
-            return node;
-        } else {
-            return findMin(left);
+        while (node.left != null) {
+            node = node.left;
         }
+        return node;
     }
 
     private BinaryNode<T> findMax(BinaryNode<T> node) {
         if (node == null) {
             return null;
         }
-        BinaryNode<T> right = node.right;
-        if (right == null) {
-            return node;
-        } else {
-            return findMax(right);
+        while (node.right != null) {
+            node = node.right;
         }
+        return node;
     }
 
     /**
@@ -116,13 +214,26 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
         if (node == null) {
             return new BinaryNode<T>(t, null, null);
         }
-        int result = t.compareTo(node.element);
-        if (result < 0) {
-            node.left = insert(t, node.left);
-        } else if (result > 0) {
-            node.right = insert(t, node.right);
+        BinaryNode<T> current = node;
+        for (;;) {
+            int result = t.compareTo(current.element);
+            if (result < 0) {
+                if (current.left == null) {
+                    current.left = new BinaryNode<T>(t, null, null);
+                    break;
+                }
+                current = current.left;
+            } else if (result > 0) {
+                if (current.right == null) {
+                    current.right = new BinaryNode<T>(t, null, null);
+                    break;
+                }
+                current = current.right;
+            } else {
+                //元素已存在，无需重复插入
+                break;
+            }
         }
-        //元素匹配此子树根节点，无需重复插入，直接返回该根节点
         return node;
     }
 
@@ -131,47 +242,129 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
      * 
      * 一、叶子节点：由于不存在左子树和右子树，因此可以直接被删除
      * 二、只存在左子树或者右子树：删除节点之后，需要调整节点子树的链
-     * 三、同时存在左子树和右子树：用节点的右子树最小数据替换被删除节点并递归删除那个节点
+     * 三、同时存在左子树和右子树：用节点的右子树最小数据替换被删除节点并删除那个节点
      * 
      * @param t
      * @param node
-     * @return
+     * @return 删除该元素之后子树的根节点
      */
     private BinaryNode<T> remove(T t, BinaryNode<T> node) {
-        if (node == null) {
-            return null;
+        BinaryNode<T> parent = null;
+        BinaryNode<T> current = node;
+        while (current != null) {
+            int result = t.compareTo(current.element);
+            if (result == 0) {
+                break;
+            }
+            parent = current;
+            current = result < 0 ? current.left : current.right;
         }
-        int result = t.compareTo(t);
-        if (result < 0) {
-            node.left = remove(t, node.left);
-        } else if (result > 0) {
-            node.right = remove(t, node.right);
+        if (current == null) {
+            //元素不存在
+            return node;
         }
-
-        if (node.left == null && node.right == null) {
-            //判定为叶子节点可以直接删除
-            return null;
-        } else if (node.left == null || node.right == null) {
-            //只存在左子树或者右子树
-            return (node.left != null) ? node.left : node.right;
-        } else {
+        if (current.left != null && current.right != null) {
             //左子树和右子树都存在
             //1.首先取得被删除节点的右子树最小值节点，并以此替代被删除节点
-            node.element = findMin(node.right).element;
-            //2.然后删除右子树最小节点，因为右子树最小值节点不会拥有左儿子，所以这次递归remove会相对容易
-            node.right = remove(node.element, node.right);
-            return node;
+            BinaryNode<T> minParent = current;
+            BinaryNode<T> min = current.right;
+            while (min.left != null) {
+                minParent = min;
+                min = min.left;
+            }
+            current.element = min.element;
+            //2.然后删除右子树最小节点，因为右子树最小值节点不会拥有左儿子，所以转化成了后两种情况
+            parent = minParent;
+            current = min;
+        }
+        //叶子节点或者只存在左子树、右子树之一，用其唯一的子树(可能为空)替代它
+        BinaryNode<T> child = (current.left != null) ? current.left : current.right;
+        if (parent == null) {
+            return child;
         }
+        if (parent.left == current) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+        return node;
+    }
+
+    /**
+     * 借助显式栈实现的中序遍历迭代器，栈中保存的是尚未访问的祖先节点
+     * 
+     * 迭代期间只允许通过迭代器自身的remove修改树
+     */
+    class InOrderIterator implements Iterator<T> {
+
+        private final Deque<BinaryNode<T>> stack = new ArrayDeque<BinaryNode<T>>();
+        private final T hi;//上界(包含)，null表示没有上界
+        private T lastReturned;
+
+        InOrderIterator(T lo, T hi) {
+            this.hi = hi;
+            seek(lo, true);
+        }
+
+        /**
+         * 把所有大于(或等于)from的元素中，位于查找路径上的节点压入栈，栈顶即为第一个满足条件的元素
+         */
+        private void seek(T from, boolean inclusive) {
+            stack.clear();
+            BinaryNode<T> node = root;
+            while (node != null) {
+                int compareResult = from == null ? -1 : from.compareTo(node.element);
+                if (compareResult < 0 || (compareResult == 0 && inclusive)) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return !stack.isEmpty() && (hi == null || stack.peek().element.compareTo(hi) <= 0);
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BinaryNode<T> node = stack.pop();
+            //下一个元素是右子树中的最小元素
+            for (BinaryNode<T> child = node.right; child != null; child = child.left) {
+                stack.push(child);
+            }
+            lastReturned = node.element;
+            return lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            //删除可能会移动节点中的元素，因此删除后重新定位到第一个大于被删除元素的位置
+            BinarySearchTree.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+        }
+
     }
 
     /**
-     * 以中序遍历打印树
+     * 以中序遍历打印树，借助显式栈避免递归
      */
     private void printTree(BinaryNode<T> node) {
-        if (node != null) {
-            printTree(node.left);
+        Deque<BinaryNode<T>> stack = new ArrayDeque<BinaryNode<T>>();
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
             System.out.println(node.element);
-            printTree(node.right);
+            node = node.right;
         }
     }
 }
@@ -0,0 +1,313 @@
+package io.github.lukaicheng.datastructures.chapter4;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 线程安全的有序集合：懒惰跳表(lazy skip list)
+ *
+ * 跳表中每个节点随机分配一个层数，第i层链表只包含层数大于i的节点，查找时从最高层开始逐层下降，期望时间O(logN)。
+ *
+ * 并发控制采用乐观的细粒度锁：
+ * 一、contains完全不加锁，只读取volatile字段，因此是wait-free的
+ * 二、insert和remove先不加锁地找到每一层的前驱，再只锁住这些前驱(以及被删除的节点)，加锁后验证前驱仍然有效，验证失败则重试
+ * 三、删除分为两步：先设置marked进行逻辑删除，再逐层摘除；插入完成所有层的链接后才设置fullyLinked，
+ *    contains只把"已完全链接且未被标记"的节点视为存在
+ *
+ * @see Herlihy, Shavit. The Art of Multiprocessor Programming, 14.3 A Lock-Based Concurrent Skiplist
+ */
+public class ConcurrentLazySkipList<T extends Comparable<? super T>> implements Iterable<T> {
+
+    //最大层数，层数为i的概率为2^-(i+1)，32层足以容纳int范围内的元素个数
+    private static final int MAX_LEVEL = 32;
+
+    //两个端点标记分别视为负无穷和正无穷，不保存元素
+    private final Node<T> head = new Node<T>(null, MAX_LEVEL - 1);
+    private final Node<T> tail = new Node<T>(null, MAX_LEVEL - 1);
+    private final AtomicInteger size = new AtomicInteger();
+
+    private static class Node<T> {
+
+        final T element;
+        final AtomicReferenceArray<Node<T>> next;
+        final int topLevel;
+        final ReentrantLock lock = new ReentrantLock();
+        //已被逻辑删除
+        volatile boolean marked = false;
+        //所有层都已链接完成
+        volatile boolean fullyLinked = false;
+
+        Node(T element, int topLevel) {
+            this.element = element;
+            this.topLevel = topLevel;
+            this.next = new AtomicReferenceArray<Node<T>>(topLevel + 1);
+        }
+    }
+
+    public ConcurrentLazySkipList() {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next.set(i, tail);
+        }
+        head.fullyLinked = true;
+        tail.fullyLinked = true;
+    }
+
+    /**
+     * 在并发修改时只是一个近似值
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 不加锁、不分配内存的查找
+     */
+    public boolean contains(T t) {
+        Node<T> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<T> curr = pred.next.get(level);
+            int compareResult;
+            while ((compareResult = compare(t, curr)) > 0) {
+                pred = curr;
+                curr = pred.next.get(level);
+            }
+            if (compareResult == 0) {
+                return curr.fullyLinked && !curr.marked;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 元素原先不存在并被成功插入时返回true
+     */
+    public boolean insert(T t) {
+        int topLevel = randomLevel();
+        Node<T>[] preds = allocateLevels();
+        Node<T>[] succs = allocateLevels();
+        for (;;) {
+            int found = find(t, preds, succs);
+            if (found >= 0) {
+                Node<T> existing = succs[found];
+                if (!existing.marked) {
+                    //等待并发的插入完成所有层的链接，保证返回后该元素对其他线程可见
+                    while (!existing.fullyLinked) {
+                        Thread.yield();
+                    }
+                    return false;
+                }
+                //已被逻辑删除但尚未摘除，重试直到它被摘除
+                continue;
+            }
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                Node<T> prevPred = null;
+                for (int level = 0; valid && level <= topLevel; level++) {
+                    Node<T> pred = preds[level];
+                    Node<T> succ = succs[level];
+                    if (pred != prevPred) {
+                        //同一个前驱可能出现在多层中，只需锁一次
+                        pred.lock.lock();
+                        highestLocked = level;
+                        prevPred = pred;
+                    }
+                    //验证前驱和后继都未被删除，且两者仍然相邻
+                    valid = !pred.marked && !succ.marked && pred.next.get(level) == succ;
+                }
+                if (!valid) {
+                    continue;
+                }
+                Node<T> newNode = new Node<T>(t, topLevel);
+                for (int level = 0; level <= topLevel; level++) {
+                    newNode.next.set(level, succs[level]);
+                }
+                for (int level = 0; level <= topLevel; level++) {
+                    preds[level].next.set(level, newNode);
+                }
+                //线性化点：此后contains能够看到该元素
+                newNode.fullyLinked = true;
+                size.incrementAndGet();
+                return true;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+
+    /**
+     * @return 元素存在并被成功删除时返回true
+     */
+    public boolean remove(T t) {
+        Node<T> victim = null;
+        boolean isMarked = false;
+        int topLevel = -1;
+        Node<T>[] preds = allocateLevels();
+        Node<T>[] succs = allocateLevels();
+        for (;;) {
+            int found = find(t, preds, succs);
+            if (found >= 0) {
+                victim = succs[found];
+            }
+            //只有在最高层被找到的节点才是已完全链接的节点，否则说明它还在插入过程中
+            if (!isMarked && (found < 0 || !victim.fullyLinked || victim.topLevel != found || victim.marked)) {
+                return false;
+            }
+            if (!isMarked) {
+                topLevel = victim.topLevel;
+                victim.lock.lock();
+                if (victim.marked) {
+                    //已被其他线程删除
+                    victim.lock.unlock();
+                    return false;
+                }
+                //线性化点：逻辑删除
+                victim.marked = true;
+                isMarked = true;
+            }
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                Node<T> prevPred = null;
+                for (int level = 0; valid && level <= topLevel; level++) {
+                    Node<T> pred = preds[level];
+                    if (pred != prevPred) {
+                        pred.lock.lock();
+                        highestLocked = level;
+                        prevPred = pred;
+                    }
+                    valid = !pred.marked && pred.next.get(level) == victim;
+                }
+                if (!valid) {
+                    //前驱发生了变化，保持对victim的锁和标记，重新查找前驱
+                    continue;
+                }
+                //从高层往低层逐层摘除，保证任何时刻通过低层都能到达该节点
+                for (int level = topLevel; level >= 0; level--) {
+                    preds[level].next.set(level, victim.next.get(level));
+                }
+                victim.lock.unlock();
+                size.decrementAndGet();
+                return true;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+
+    /**
+     * 弱一致性的迭代器：按从小到大的顺序遍历，不会抛出ConcurrentModificationException，
+     * 能否看到迭代开始后的修改取决于修改发生的位置
+     */
+    public Iterator<T> iterator() {
+        return new SkipListIterator();
+    }
+
+    class SkipListIterator implements Iterator<T> {
+
+        private Node<T> nextNode;
+        private T lastReturned;
+
+        SkipListIterator() {
+            advance(head.next.get(0));
+        }
+
+        private void advance(Node<T> node) {
+            //跳过已删除或尚未完成插入的节点
+            while (node != tail && (node.marked || !node.fullyLinked)) {
+                node = node.next.get(0);
+            }
+            nextNode = node;
+        }
+
+        public boolean hasNext() {
+            return nextNode != tail;
+        }
+
+        public T next() {
+            if (nextNode == tail) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = nextNode.element;
+            advance(nextNode.next.get(0));
+            return lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentLazySkipList.this.remove(lastReturned);
+            lastReturned = null;
+        }
+
+    }
+
+    /**
+     * 从最高层开始查找t，记录每一层中t的前驱和后继
+     *
+     * @return t所在节点被找到的最高层，不存在时返回-1
+     */
+    private int find(T t, Node<T>[] preds, Node<T>[] succs) {
+        int found = -1;
+        Node<T> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<T> curr = pred.next.get(level);
+            while (compare(t, curr) > 0) {
+                pred = curr;
+                curr = pred.next.get(level);
+            }
+            if (found == -1 && compare(t, curr) == 0) {
+                found = level;
+            }
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+        return found;
+    }
+
+    /**
+     * 比较t与节点中的元素，端点标记分别视为负无穷和正无穷
+     */
+    private int compare(T t, Node<T> node) {
+        if (node == head) {
+            return 1;
+        }
+        if (node == tail) {
+            return -1;
+        }
+        return t.compareTo(node.element);
+    }
+
+    private void unlock(Node<T>[] preds, int highestLocked) {
+        Node<T> prevPred = null;
+        for (int level = 0; level <= highestLocked; level++) {
+            if (preds[level] != prevPred) {
+                preds[level].lock.unlock();
+                prevPred = preds[level];
+            }
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Node<T>[] allocateLevels() {
+        return new Node[MAX_LEVEL];
+    }
+
+    /**
+     * 以1/2的概率逐层增加层数
+     */
+    private int randomLevel() {
+        int level = Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1)));
+        return Math.min(level, MAX_LEVEL - 1);
+    }
+
+}
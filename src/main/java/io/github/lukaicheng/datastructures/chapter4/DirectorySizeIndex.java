@@ -0,0 +1,504 @@
+package io.github.lukaicheng.datastructures.chapter4;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目录大小索引：在内存中保存与目录结构相同的一棵树，每个目录节点记录其中每个文件的大小以及整棵子树的总大小
+ *
+ * 首次建立时使用ParallelDirectoryWalker并行扫描一遍，之后通过WatchService接收文件变化的通知增量更新：
+ * 某个文件的大小变化delta时，只需沿着父节点把delta累加到根，因此更新和查询某个目录的大小都是O(depth)，
+ * 而不必像FileListDemo那样每次都重新遍历全部文件。
+ *
+ * WatchService只监听被注册目录的直接子项，因此每个目录都需要单独注册；之后新出现的目录通常很小，
+ * 直接在处理事件的线程中先注册再读取其中的目录项，读取期间发生的变化同样会产生事件。
+ *
+ * 每个目录节点还记录读取目录项之前该目录的修改时间，目录中增删目录项都会改变它。索引可以保存到磁盘并重新加载，
+ * 加载时以及开始监听时核对整棵树：修改时间变化的目录重新读取目录项，其余目录只检查其中文件的大小，
+ * 因此离线期间的变化只会重新扫描发生变化的部分；事件溢出(OVERFLOW)时同样核对该目录的整棵子树。
+ *
+ * 所有公共方法都是线程安全的，可以在一个线程中处理事件的同时在其他线程中查询
+ *
+ */
+public class DirectorySizeIndex implements Closeable {
+
+    private static final int MAGIC = 0x44534931;
+
+    private final Path root;
+    private final DirNode rootNode;
+    private WatchService watcher;
+    private final Map<WatchKey, DirNode> watchKeys = new HashMap<WatchKey, DirNode>();
+
+    private static class DirNode {
+
+        final String name;
+        DirNode parent;
+        final Map<String, DirNode> dirs = new HashMap<String, DirNode>();
+        final Map<String, Long> files = new HashMap<String, Long>();
+        //整棵子树中所有文件的大小之和
+        long totalSize;
+        //读取目录项之前目录的修改时间(纳秒)，只在读取目录项时更新，因此不会比索引中的目录项更新
+        long modified;
+        WatchKey key;
+
+        DirNode(String name, DirNode parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+    }
+
+    private DirectorySizeIndex(Path root, DirNode rootNode) {
+        this.root = root;
+        this.rootNode = rootNode;
+    }
+
+    /**
+     * 扫描root建立索引
+     */
+    public static DirectorySizeIndex build(Path root) throws IOException {
+        Path normalized = root.toAbsolutePath().normalize();
+        if (!Files.isDirectory(normalized, LinkOption.NOFOLLOW_LINKS)) {
+            throw new NotDirectoryException(root.toString());
+        }
+        return new DirectorySizeIndex(normalized, scan(normalized, null));
+    }
+
+    /**
+     * 从save()保存的文件中加载索引，并核对保存之后磁盘上发生的变化
+     */
+    public static DirectorySizeIndex load(Path snapshot) throws IOException {
+        DirectorySizeIndex index;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a DirectorySizeIndex snapshot");
+            }
+            Path root = Paths.get(in.readUTF());
+            index = new DirectorySizeIndex(root, read(in, "", null));
+        }
+        if (!Files.isDirectory(index.root, LinkOption.NOFOLLOW_LINKS)) {
+            throw new NotDirectoryException(index.root.toString());
+        }
+        index.verify(index.rootNode);
+        return index;
+    }
+
+    /**
+     * 按先序把整棵树写入文件：[magic][root]，之后每个目录为[修改时间][文件数][(文件名, 大小)...][子目录数][(子目录名, 子目录)...]
+     */
+    public synchronized void save(Path snapshot) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshot)))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(root.toString());
+            write(out, rootNode);
+        }
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * 返回文件的大小或目录的总大小，时间复杂度O(depth)；路径不在索引中时返回-1
+     */
+    public synchronized long size(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (normalized.equals(root)) {
+            return rootNode.totalSize;
+        }
+        if (!normalized.startsWith(root)) {
+            return -1;
+        }
+        Path relative = root.relativize(normalized);
+        DirNode node = rootNode;
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+            node = node.dirs.get(relative.getName(i).toString());
+            if (node == null) {
+                return -1;
+            }
+        }
+        String name = relative.getFileName().toString();
+        DirNode dir = node.dirs.get(name);
+        if (dir != null) {
+            return dir.totalSize;
+        }
+        Long fileSize = node.files.get(name);
+        return fileSize == null ? -1 : fileSize;
+    }
+
+    /**
+     * 为索引中的每个目录注册WatchService，此后调用processEvents()即可把文件变化应用到索引中
+     */
+    public synchronized void watch() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        watcher = root.getFileSystem().newWatchService();
+        register(rootNode);
+        //注册之后的变化都会产生事件，这里只需核对注册之前发生的变化
+        verify(rootNode);
+    }
+
+    /**
+     * 不等待地处理所有已到达的事件
+     *
+     * @return 处理的事件个数，索引被其他线程关闭时返回已处理的个数
+     */
+    public int processEvents() {
+        return drain(watchService());
+    }
+
+    /**
+     * 最多等待timeout直到有事件到达，然后处理所有已到达的事件
+     *
+     * @return 处理的事件个数，索引被其他线程关闭时返回已处理的个数
+     */
+    public int processEvents(long timeout, TimeUnit unit) throws InterruptedException {
+        //等待时不能持有锁，因此先取出watcher，close()之后再使用它会抛出ClosedWatchServiceException
+        WatchService service = watchService();
+        WatchKey key;
+        try {
+            key = service.poll(timeout, unit);
+        } catch (ClosedWatchServiceException e) {
+            return 0;
+        }
+        if (key == null) {
+            return 0;
+        }
+        return process(key) + drain(service);
+    }
+
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+            watchKeys.clear();
+        }
+    }
+
+    private synchronized WatchService watchService() {
+        if (watcher == null) {
+            throw new IllegalStateException("watch() has not been called");
+        }
+        return watcher;
+    }
+
+    private int drain(WatchService service) {
+        int count = 0;
+        try {
+            WatchKey key;
+            while ((key = service.poll()) != null) {
+                count += process(key);
+            }
+        } catch (ClosedWatchServiceException e) {
+            //已被其他线程关闭
+        }
+        return count;
+    }
+
+    private int process(WatchKey key) {
+        int count = 0;
+        synchronized (this) {
+            DirNode node = watchKeys.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                count++;
+                if (node == null) {
+                    //目录已经从索引中删除
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    //部分事件已经丢失，丢失的可能是子目录中的事件，因此核对该目录的整棵子树
+                    verify(node);
+                } else {
+                    refresh(node, ((Path) event.context()).getFileName().toString());
+                }
+            }
+            if (!key.reset()) {
+                //目录已被删除或无法访问，删除事件会由其父目录的监听处理
+                watchKeys.remove(key);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 根据目录项在磁盘上的当前状态更新索引，创建、修改和删除都统一按此处理，因此重复的事件不会造成错误
+     */
+    private void refresh(DirNode node, String name) {
+        Path path = pathOf(node).resolve(name);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            //已被删除，或者无法读取(与ParallelDirectoryWalker一致，按大小0计算)
+            removeEntry(node, name);
+            return;
+        }
+        if (attrs.isDirectory()) {
+            if (node.dirs.containsKey(name)) {
+                //目录本身的修改事件不影响大小，其中的变化由该目录自己的监听处理
+                return;
+            }
+            removeEntry(node, name);
+            //先注册再读取目录项，读取期间新增的目录项也会产生事件，其中的子目录在reconcile中递归处理
+            DirNode dir = new DirNode(name, node);
+            node.dirs.put(name, dir);
+            if (watcher != null) {
+                register(dir);
+            }
+            reconcile(dir);
+        } else {
+            if (node.dirs.containsKey(name)) {
+                removeEntry(node, name);
+            }
+            Long oldSize = node.files.put(name, attrs.size());
+            propagate(node, attrs.size() - (oldSize == null ? 0 : oldSize));
+        }
+    }
+
+    /**
+     * 使索引中node的直接子项与磁盘一致
+     */
+    private void reconcile(DirNode node) {
+        Path path = pathOf(node);
+        Set<String> names = new HashSet<String>();
+        long modified;
+        try {
+            //在读取目录项之前取修改时间，读取期间的变化会使下一次核对时的修改时间不同
+            modified = modifiedTime(path);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path entry : stream) {
+                    names.add(entry.getFileName().toString());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            //目录已不可读，由其父目录的事件处理
+            return;
+        }
+        node.modified = modified;
+        List<String> stale = new ArrayList<String>();
+        for (String name : node.files.keySet()) {
+            if (!names.contains(name)) {
+                stale.add(name);
+            }
+        }
+        for (String name : node.dirs.keySet()) {
+            if (!names.contains(name)) {
+                stale.add(name);
+            }
+        }
+        for (String name : stale) {
+            removeEntry(node, name);
+        }
+        for (String name : names) {
+            refresh(node, name);
+        }
+    }
+
+    /**
+     * 核对subtree与磁盘是否一致：修改时间变化的目录中增删过目录项，重新核对其全部直接子项；
+     * 其余目录的目录项没有变化，只需逐个检查其中文件的大小
+     */
+    private void verify(DirNode subtree) {
+        ArrayDeque<DirNode> stack = new ArrayDeque<DirNode>();
+        stack.push(subtree);
+        while (!stack.isEmpty()) {
+            DirNode node = stack.pop();
+            long modified;
+            try {
+                modified = modifiedTime(pathOf(node));
+            } catch (IOException e) {
+                //目录已被删除，由其父目录处理
+                continue;
+            }
+            List<DirNode> children = new ArrayList<DirNode>(node.dirs.values());
+            if (modified != node.modified) {
+                reconcile(node);
+            } else {
+                for (String name : new ArrayList<String>(node.files.keySet())) {
+                    refresh(node, name);
+                }
+            }
+            for (DirNode child : children) {
+                //核对过程中新出现的目录刚刚读取过，不必再核对
+                if (node.dirs.get(child.name) == child) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    private void removeEntry(DirNode node, String name) {
+        Long fileSize = node.files.remove(name);
+        if (fileSize != null) {
+            propagate(node, -fileSize);
+        }
+        DirNode dir = node.dirs.remove(name);
+        if (dir != null) {
+            propagate(node, -dir.totalSize);
+            unregister(dir);
+        }
+    }
+
+    /**
+     * 把delta沿父节点一直累加到根
+     */
+    private static void propagate(DirNode node, long delta) {
+        for (; node != null; node = node.parent) {
+            node.totalSize += delta;
+        }
+    }
+
+    private Path pathOf(DirNode node) {
+        ArrayDeque<String> names = new ArrayDeque<String>();
+        for (; node != rootNode; node = node.parent) {
+            names.push(node.name);
+        }
+        Path path = root;
+        for (String name : names) {
+            path = path.resolve(name);
+        }
+        return path;
+    }
+
+    private static long modifiedTime(Path dir) throws IOException {
+        return Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 注册subtree中的全部目录
+     */
+    private void register(DirNode subtree) {
+        ArrayDeque<DirNode> stack = new ArrayDeque<DirNode>();
+        stack.push(subtree);
+        while (!stack.isEmpty()) {
+            DirNode node = stack.pop();
+            try {
+                node.key = pathOf(node).register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchKeys.put(node.key, node);
+            } catch (IOException e) {
+                //目录在扫描之后已被删除，删除事件会由其父目录的监听处理
+            }
+            for (DirNode child : node.dirs.values()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    private void unregister(DirNode subtree) {
+        ArrayDeque<DirNode> stack = new ArrayDeque<DirNode>();
+        stack.push(subtree);
+        while (!stack.isEmpty()) {
+            DirNode node = stack.pop();
+            if (node.key != null) {
+                node.key.cancel();
+                watchKeys.remove(node.key);
+                node.key = null;
+            }
+            for (DirNode child : node.dirs.values()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * 建立索引时并行扫描dir，返回一棵尚未挂到索引上的子树
+     */
+    private static DirNode scan(final Path dir, String name) {
+        final DirNode top = new DirNode(name, null);
+        new ParallelDirectoryWalker().walk(dir, new ParallelDirectoryWalker.Visitor() {
+
+            public synchronized void visitDirectory(Path path, BasicFileAttributes attrs, int depth) {
+                nodeOf(path).modified = attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            }
+
+            public synchronized void visitFile(Path file, BasicFileAttributes attrs, int depth) {
+                nodeOf(file.getParent()).files.put(file.getFileName().toString(), attrs.size());
+            }
+
+            public synchronized void directoryTotal(Path path, long totalSize, int depth) {
+                //空目录没有visitFile回调，在这里保证每个目录都有对应的节点
+                nodeOf(path).totalSize = totalSize;
+            }
+
+            public void visitFailed(Path path, IOException e) {
+            }
+
+            private DirNode nodeOf(Path path) {
+                DirNode node = top;
+                if (path.equals(dir)) {
+                    return node;
+                }
+                for (Path part : dir.relativize(path)) {
+                    String partName = part.toString();
+                    DirNode child = node.dirs.get(partName);
+                    if (child == null) {
+                        child = new DirNode(partName, node);
+                        node.dirs.put(partName, child);
+                    }
+                    node = child;
+                }
+                return node;
+            }
+        });
+        return top;
+    }
+
+    private static void write(DataOutputStream out, DirNode node) throws IOException {
+        out.writeLong(node.modified);
+        out.writeInt(node.files.size());
+        for (Map.Entry<String, Long> file : node.files.entrySet()) {
+            out.writeUTF(file.getKey());
+            out.writeLong(file.getValue());
+        }
+        out.writeInt(node.dirs.size());
+        for (DirNode child : node.dirs.values()) {
+            out.writeUTF(child.name);
+            write(out, child);
+        }
+    }
+
+    private static DirNode read(DataInputStream in, String name, DirNode parent) throws IOException {
+        DirNode node = new DirNode(name, parent);
+        node.modified = in.readLong();
+        int fileCount = in.readInt();
+        for (int i = 0; i < fileCount; i++) {
+            String fileName = in.readUTF();
+            long fileSize = in.readLong();
+            node.files.put(fileName, fileSize);
+            node.totalSize += fileSize;
+        }
+        int dirCount = in.readInt();
+        for (int i = 0; i < dirCount; i++) {
+            DirNode child = read(in, in.readUTF(), node);
+            node.dirs.put(child.name, child);
+            node.totalSize += child.totalSize;
+        }
+        return node;
+    }
+
+}
@@ -0,0 +1,846 @@
+package io.github.lukaicheng.datastructures.chapter4;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import io.github.lukaicheng.datastructures.chapter3.RecordCodec;
+
+/**
+ * 基于内存映射文件的B+树，用于存放无法舒适地放入Java堆中的有序集合，重新打开时只需重新映射文件，无需重建
+ *
+ * 文件被划分为固定大小的页，第0页为元数据页，其余每页存放一个节点，关键字经由RecordCodec编码为定长记录。
+ * 与BTree一样所有元素都存放在叶子中，叶子之间通过页号串成链表，便于范围扫描。
+ * 节点被访问时解码成堆中的对象，并由一个按访问顺序淘汰的LRU缓存保存最近使用的节点，
+ * 根附近的热点节点因此不必每次都重新解码；被修改的节点在每次操作结束时才写回映射区域。
+ *
+ * 崩溃安全采用回滚日志(rollback journal)：自上一个检查点以来，某一页第一次被修改之前，
+ * 先把它的原始内容追加到日志文件并刷盘，之后才修改映射区域。checkpoint()先把映射区域刷盘，再清空日志。
+ * 重新打开时如果日志不为空，说明上次没有正常完成检查点，用日志中的原始内容覆盖对应的页，
+ * 文件就回到了上一个检查点时的一致状态。因此insert和remove在调用checkpoint()或close()之后才是持久的。
+ *
+ * 元数据页：[magic:int][pageSize:int][keySize:int][root:int][pageCount:int][freeHead:int][size:int]
+ * 节点页：[type:int][count:int][next:int][reserved:int]，叶子之后是count个关键字；
+ * 非叶节点之后是最多innerMaxKeys+1个儿子页号，再之后是count个关键字
+ *
+ */
+public class DiskBPlusTree<T extends Comparable<? super T>> implements Iterable<T>, Closeable {
+
+    private static final int MAGIC = 0x42505452;
+    private static final int PAGE_SIZE = 4096;
+    //单个region映射的页数，单个MappedByteBuffer最多只能映射2GB
+    private static final int REGION_PAGES = (1 << 30) / PAGE_SIZE;
+    private static final int DEFAULT_CACHE_PAGES = 256;
+
+    private static final int META_PAGE = 0;
+    private static final int PAGE_SIZE_OFFSET = 4;
+    private static final int KEY_SIZE_OFFSET = 8;
+    private static final int ROOT_OFFSET = 12;
+    private static final int PAGE_COUNT_OFFSET = 16;
+    private static final int FREE_HEAD_OFFSET = 20;
+    private static final int SIZE_OFFSET = 24;
+
+    private static final int NODE_HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 4;
+    private static final int NEXT_OFFSET = 8;
+    private static final int LEAF = 1;
+    private static final int INNER = 2;
+    //已释放的页，next指向空闲链表中的下一页
+    private static final int FREE = 3;
+    //第0页是元数据页，因此页号0可以表示"没有"
+    private static final int NIL = 0;
+
+    //日志条目：[crc:int][page:int][原始页内容]，crc覆盖页号和页内容，用于识别崩溃时没有写完的条目
+    private static final int JOURNAL_ENTRY_SIZE = 8 + PAGE_SIZE;
+
+    private final FileChannel channel;
+    private final FileChannel journal;
+    private final RecordCodec<T> codec;
+    private final int keySize;
+    private final int leafMaxKeys;
+    private final int innerMaxKeys;
+    private final int leafMinKeys;
+    private final int innerMinKeys;
+    //非叶节点中关键字区域的起始偏移
+    private final int innerKeysOffset;
+    private final List<MappedByteBuffer> regions = new ArrayList<MappedByteBuffer>();
+    private int mappedPages;
+    //按访问顺序淘汰的节点缓存
+    private final Map<Integer, Node> cache;
+    //当前操作中被修改、尚未写回的节点
+    private final Map<Integer, Node> dirty = new LinkedHashMap<Integer, Node>();
+    //自上一个检查点以来已经写入日志的页
+    private final BitSet journaled = new BitSet();
+    //上一个检查点时的页数，之后新分配的页不需要写日志
+    private int checkpointPageCount;
+    private final ByteBuffer journalBuffer = ByteBuffer.allocate(JOURNAL_ENTRY_SIZE);
+
+    private int root;
+    private int pageCount;
+    private int freeHead;
+    private int size;
+
+    /**
+     * 解码到堆中的节点，数组比最大容量多留一个位置，使得插入时可以先放入再分裂
+     */
+    private class Node {
+
+        final int id;
+        final int type;
+        final Object[] keys;
+        //非叶节点：children[i]中的关键字都小于keys[i]，children[i+1]中的关键字都大于等于keys[i]
+        final int[] children;
+        int count;
+        //叶子的后继叶子页号，或空闲页在空闲链表中的下一页
+        int next;
+
+        Node(int id, int type) {
+            this.id = id;
+            this.type = type;
+            this.keys = new Object[type == LEAF ? leafMaxKeys + 1 : type == INNER ? innerMaxKeys + 1 : 0];
+            this.children = type == INNER ? new int[innerMaxKeys + 2] : null;
+        }
+
+        boolean isLeaf() {
+            return type == LEAF;
+        }
+
+        int minKeys() {
+            return isLeaf() ? leafMinKeys : innerMinKeys;
+        }
+
+        /**
+         * 在keys[0, count)中二分查找，找到时返回下标，否则返回-(插入位置)-1
+         */
+        int search(T t) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int compareResult = key(mid).compareTo(t);
+                if (compareResult < 0) {
+                    low = mid + 1;
+                } else if (compareResult > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        T key(int index) {
+            return (T) keys[index];
+        }
+
+        /**
+         * 返回关键字t所在的儿子下标
+         */
+        int childIndex(T t) {
+            int pos = search(t);
+            return pos >= 0 ? pos + 1 : -(pos + 1);
+        }
+
+        void insertKey(int index, Object key) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            keys[index] = key;
+            count++;
+        }
+
+        void removeKey(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            keys[--count] = null;
+        }
+
+        void insertChild(int index, int child) {
+            System.arraycopy(children, index, children, index + 1, count + 1 - index);
+            children[index] = child;
+        }
+
+        void removeChild(int index) {
+            //儿子个数为count+1
+            System.arraycopy(children, index + 1, children, index, count - index);
+            children[count] = NIL;
+        }
+    }
+
+    /**
+     * 节点分裂的结果：需要插入父节点的分隔关键字以及新的右兄弟页号
+     */
+    private class Split {
+
+        final Object key;
+        final int right;
+
+        Split(Object key, int right) {
+            this.key = key;
+            this.right = right;
+        }
+    }
+
+    private DiskBPlusTree(FileChannel channel, FileChannel journal, RecordCodec<T> codec, final int cachePages)
+            throws IOException {
+        this.channel = channel;
+        this.journal = journal;
+        this.codec = codec;
+        this.keySize = codec.recordSize();
+        this.leafMaxKeys = keySize > 0 ? (PAGE_SIZE - NODE_HEADER_SIZE) / keySize : 0;
+        this.innerMaxKeys = keySize > 0 ? (PAGE_SIZE - NODE_HEADER_SIZE - 4) / (keySize + 4) : 0;
+        if (innerMaxKeys < 3) {
+            //每页至少要能容纳4阶B+树的节点
+            throw new IllegalArgumentException("Illegal key size: " + keySize);
+        }
+        this.leafMinKeys = leafMaxKeys / 2;
+        this.innerMinKeys = innerMaxKeys / 2;
+        this.innerKeysOffset = NODE_HEADER_SIZE + 4 * (innerMaxKeys + 1);
+        this.cache = new LinkedHashMap<Integer, Node>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                return size() > cachePages;
+            }
+        };
+        recover();
+        if (channel.size() == 0) {
+            pageCount = 2;
+            root = 1;
+            freeHead = NIL;
+            size = 0;
+            ensureMapped(pageCount);
+            ByteBuffer meta = region(META_PAGE);
+            meta.putInt(0, MAGIC);
+            meta.putInt(PAGE_SIZE_OFFSET, PAGE_SIZE);
+            meta.putInt(KEY_SIZE_OFFSET, keySize);
+            dirty.put(root, new Node(root, LEAF));
+            flush();
+            checkpoint();
+        } else {
+            ensureMapped(1);
+            ByteBuffer meta = region(META_PAGE);
+            if (meta.getInt(0) != MAGIC || meta.getInt(PAGE_SIZE_OFFSET) != PAGE_SIZE) {
+                throw new IOException("Not a DiskBPlusTree file");
+            }
+            if (meta.getInt(KEY_SIZE_OFFSET) != keySize) {
+                throw new IOException("Key size mismatch: file uses " + meta.getInt(KEY_SIZE_OFFSET)
+                        + " bytes, codec uses " + keySize + " bytes");
+            }
+            root = meta.getInt(ROOT_OFFSET);
+            pageCount = meta.getInt(PAGE_COUNT_OFFSET);
+            freeHead = meta.getInt(FREE_HEAD_OFFSET);
+            size = meta.getInt(SIZE_OFFSET);
+            checkpointPageCount = pageCount;
+            ensureMapped(pageCount);
+        }
+    }
+
+    /**
+     * 打开或创建索引文件，同一目录下的"文件名-journal"用作回滚日志；文件已存在时其关键字长度必须与codec一致
+     */
+    public static <T extends Comparable<? super T>> DiskBPlusTree<T> open(Path file, RecordCodec<T> codec)
+            throws IOException {
+        return open(file, codec, DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * @param cachePages 节点缓存最多保存的页数
+     */
+    public static <T extends Comparable<? super T>> DiskBPlusTree<T> open(Path file, RecordCodec<T> codec,
+            int cachePages) throws IOException {
+        if (cachePages < 16) {
+            //一次操作会同时持有一条路径上的节点及其兄弟，缓存不能太小
+            throw new IllegalArgumentException("Illegal cache size: " + cachePages);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileChannel journal = null;
+        try {
+            journal = FileChannel.open(file.resolveSibling(file.getFileName() + "-journal"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new DiskBPlusTree<T>(channel, journal, codec, cachePages);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (journal != null) {
+                journal.close();
+            }
+            throw e;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void makeEmpty() {
+        cache.clear();
+        //之前的页全部作废，后续分配时会在写日志之后被重新使用
+        root = 1;
+        pageCount = 2;
+        freeHead = NIL;
+        size = 0;
+        dirty.put(root, new Node(root, LEAF));
+        flush();
+    }
+
+    public boolean contains(T t) {
+        Node node = node(root);
+        while (!node.isLeaf()) {
+            node = node(node.children[node.childIndex(t)]);
+        }
+        return node.search(t) >= 0;
+    }
+
+    public T findMin() {
+        if (isEmpty()) {
+            return null;
+        }
+        return firstLeaf().key(0);
+    }
+
+    public T findMax() {
+        if (isEmpty()) {
+            return null;
+        }
+        Node node = node(root);
+        while (!node.isLeaf()) {
+            node = node(node.children[node.count]);
+        }
+        return node.key(node.count - 1);
+    }
+
+    public void insert(T t) {
+        Split split = insert(t, node(root));
+        if (split != null) {
+            //根节点分裂，树长高一层
+            Node newRoot = allocate(INNER);
+            newRoot.keys[0] = split.key;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.count = 1;
+            root = newRoot.id;
+        }
+        if (!dirty.isEmpty()) {
+            flush();
+        }
+    }
+
+    public void remove(T t) {
+        Node rootNode = node(root);
+        if (remove(t, rootNode)) {
+            if (!rootNode.isLeaf() && rootNode.count == 0) {
+                //根节点只剩一个儿子，树降低一层
+                root = rootNode.children[0];
+                free(rootNode);
+            }
+            flush();
+        }
+    }
+
+    /**
+     * 按从小到大的顺序沿叶子链表遍历全部元素
+     */
+    public Iterator<T> iterator() {
+        return new LeafIterator(null, null);
+    }
+
+    /**
+     * 返回闭区间[lo, hi]内元素的惰性视图
+     */
+    public Iterable<T> range(final T lo, final T hi) {
+        return new Iterable<T>() {
+            public Iterator<T> iterator() {
+                return new LeafIterator(lo, hi);
+            }
+        };
+    }
+
+    /**
+     * 检查点：把映射区域中的全部修改刷盘后清空日志，此后即使崩溃，重新打开时也会保留到此为止的全部修改
+     */
+    public void checkpoint() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+        try {
+            //映射超出文件末尾的区域时文件被扩展，文件长度也需要刷盘
+            channel.force(true);
+            journal.truncate(0);
+            journal.force(true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to checkpoint", e);
+        }
+        journaled.clear();
+        checkpointPageCount = pageCount;
+    }
+
+    /**
+     * 完成检查点并关闭文件，映射区域会在被GC回收时释放
+     */
+    public void close() throws IOException {
+        checkpoint();
+        regions.clear();
+        cache.clear();
+        channel.close();
+        journal.close();
+    }
+
+    /**
+     * 树高为O(log_M N)，递归深度很小，因此插入和删除直接采用递归实现
+     *
+     * @return 节点发生分裂时返回分裂结果，否则返回null
+     */
+    private Split insert(T t, Node node) {
+        if (node.isLeaf()) {
+            int pos = node.search(t);
+            if (pos >= 0) {
+                //已存在，无需重复插入
+                return null;
+            }
+            node.insertKey(-(pos + 1), t);
+            size++;
+            markDirty(node);
+            return node.count > leafMaxKeys ? splitLeaf(node) : null;
+        }
+        int index = node.childIndex(t);
+        Split split = insert(t, node(node.children[index]));
+        if (split == null) {
+            return null;
+        }
+        //insertChild依赖插入前的count，因此先插入儿子再插入关键字
+        node.insertChild(index + 1, split.right);
+        node.insertKey(index, split.key);
+        markDirty(node);
+        return node.count > innerMaxKeys ? splitInner(node) : null;
+    }
+
+    private Split splitLeaf(Node leaf) {
+        Node right = allocate(LEAF);
+        int half = leaf.count / 2;
+        right.count = leaf.count - half;
+        System.arraycopy(leaf.keys, half, right.keys, 0, right.count);
+        clear(leaf.keys, half, leaf.count);
+        leaf.count = half;
+        right.next = leaf.next;
+        leaf.next = right.id;
+        //B+树的叶子分裂时，把右半部分的第一个关键字复制到父节点
+        return new Split(right.keys[0], right.id);
+    }
+
+    private Split splitInner(Node inner) {
+        Node right = allocate(INNER);
+        int mid = inner.count / 2;
+        Object separator = inner.keys[mid];
+        right.count = inner.count - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.count + 1);
+        clear(inner.keys, mid, inner.count);
+        for (int i = mid + 1; i <= inner.count; i++) {
+            inner.children[i] = NIL;
+        }
+        inner.count = mid;
+        //非叶节点分裂时，中间的关键字上移到父节点
+        return new Split(separator, right.id);
+    }
+
+    /**
+     * @return 是否删除了元素
+     */
+    private boolean remove(T t, Node node) {
+        if (node.isLeaf()) {
+            int pos = node.search(t);
+            if (pos < 0) {
+                return false;
+            }
+            node.removeKey(pos);
+            size--;
+            markDirty(node);
+            return true;
+        }
+        int index = node.childIndex(t);
+        Node child = node(node.children[index]);
+        if (!remove(t, child)) {
+            return false;
+        }
+        if (child.count < child.minKeys()) {
+            rebalance(node, index, child);
+        }
+        return true;
+    }
+
+    /**
+     * 儿子节点的关键字不足时，先尝试从相邻的兄弟借一个，兄弟也只剩最少关键字时则与兄弟合并
+     */
+    private void rebalance(Node parent, int index, Node child) {
+        Node left = index > 0 ? node(parent.children[index - 1]) : null;
+        Node right = index < parent.count ? node(parent.children[index + 1]) : null;
+        if (left != null && left.count > left.minKeys()) {
+            if (child.isLeaf()) {
+                child.insertKey(0, left.keys[left.count - 1]);
+                left.removeKey(left.count - 1);
+                parent.keys[index - 1] = child.keys[0];
+            } else {
+                //父节点的分隔关键字下移，左兄弟的最后一个关键字上移
+                child.insertChild(0, left.children[left.count]);
+                child.insertKey(0, parent.keys[index - 1]);
+                parent.keys[index - 1] = left.keys[left.count - 1];
+                left.children[left.count] = NIL;
+                left.removeKey(left.count - 1);
+            }
+            markDirty(left);
+            markDirty(child);
+        } else if (right != null && right.count > right.minKeys()) {
+            if (child.isLeaf()) {
+                child.insertKey(child.count, right.keys[0]);
+                right.removeKey(0);
+                parent.keys[index] = right.keys[0];
+            } else {
+                child.children[child.count + 1] = right.children[0];
+                child.insertKey(child.count, parent.keys[index]);
+                parent.keys[index] = right.keys[0];
+                right.removeChild(0);
+                right.removeKey(0);
+            }
+            markDirty(right);
+            markDirty(child);
+        } else if (left != null) {
+            merge(parent, index - 1, left, child);
+        } else {
+            merge(parent, index, child, right);
+        }
+        markDirty(parent);
+    }
+
+    /**
+     * 将parent的第index+1个儿子right合并到第index个儿子left中，并释放right所在的页
+     */
+    private void merge(Node parent, int index, Node left, Node right) {
+        if (left.isLeaf()) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            left.count += right.count;
+            left.next = right.next;
+        } else {
+            //非叶节点合并时，父节点中的分隔关键字需要一同下移
+            left.keys[left.count] = parent.keys[index];
+            System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+            System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+            left.count += right.count + 1;
+        }
+        parent.removeChild(index + 1);
+        parent.removeKey(index);
+        markDirty(left);
+        free(right);
+    }
+
+    private Node firstLeaf() {
+        Node node = node(root);
+        while (!node.isLeaf()) {
+            node = node(node.children[0]);
+        }
+        return node;
+    }
+
+    private static void clear(Object[] array, int from, int to) {
+        for (int i = from; i < to; i++) {
+            array[i] = null;
+        }
+    }
+
+    /**
+     * 读取页号为id的节点：当前操作中已修改的节点优先，其次是缓存，最后才从映射区域解码
+     */
+    private Node node(int id) {
+        Node node = dirty.get(id);
+        if (node == null) {
+            node = cache.get(id);
+        }
+        if (node == null) {
+            node = decode(id);
+            cache.put(id, node);
+        }
+        return node;
+    }
+
+    private void markDirty(Node node) {
+        dirty.put(node.id, node);
+    }
+
+    /**
+     * 优先复用空闲链表中的页，没有空闲页时在文件末尾追加
+     */
+    private Node allocate(int type) {
+        int id;
+        if (freeHead != NIL) {
+            id = freeHead;
+            freeHead = node(id).next;
+            cache.remove(id);
+        } else {
+            id = pageCount++;
+            ensureMapped(pageCount);
+        }
+        Node node = new Node(id, type);
+        markDirty(node);
+        return node;
+    }
+
+    private void free(Node node) {
+        Node freeNode = new Node(node.id, FREE);
+        freeNode.next = freeHead;
+        freeHead = node.id;
+        cache.remove(node.id);
+        markDirty(freeNode);
+    }
+
+    /**
+     * 操作结束时把被修改的节点和元数据写回映射区域，写回之前先把这些页的原始内容写入日志并刷盘
+     */
+    private void flush() {
+        try {
+            boolean appended = journalPage(META_PAGE);
+            for (Node node : dirty.values()) {
+                appended |= journalPage(node.id);
+            }
+            if (appended) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write journal", e);
+        }
+        for (Node node : dirty.values()) {
+            encode(node);
+            if (node.type != FREE) {
+                cache.put(node.id, node);
+            }
+        }
+        dirty.clear();
+        ByteBuffer meta = region(META_PAGE);
+        meta.putInt(ROOT_OFFSET, root);
+        meta.putInt(PAGE_COUNT_OFFSET, pageCount);
+        meta.putInt(FREE_HEAD_OFFSET, freeHead);
+        meta.putInt(SIZE_OFFSET, size);
+    }
+
+    /**
+     * 自上一个检查点以来第一次修改某一页之前，把它的原始内容追加到日志中
+     *
+     * @return 是否追加了日志
+     */
+    private boolean journalPage(int id) throws IOException {
+        if (id >= checkpointPageCount || journaled.get(id)) {
+            //检查点之后新分配的页，回滚时本来就不会被引用
+            return false;
+        }
+        ByteBuffer page = region(id).duplicate();
+        page.position(offset(id));
+        page.limit(offset(id) + PAGE_SIZE);
+        journalBuffer.clear();
+        journalBuffer.putInt(0);
+        journalBuffer.putInt(id);
+        journalBuffer.put(page);
+        CRC32 crc = new CRC32();
+        crc.update(journalBuffer.array(), 4, JOURNAL_ENTRY_SIZE - 4);
+        journalBuffer.putInt(0, (int) crc.getValue());
+        journalBuffer.flip();
+        while (journalBuffer.hasRemaining()) {
+            journal.write(journalBuffer);
+        }
+        journaled.set(id);
+        return true;
+    }
+
+    /**
+     * 用日志中的原始内容覆盖对应的页，使文件回到上一个检查点时的状态
+     */
+    private void recover() throws IOException {
+        long journalSize = journal.size();
+        if (journalSize == 0) {
+            return;
+        }
+        ByteBuffer entry = ByteBuffer.allocate(JOURNAL_ENTRY_SIZE);
+        for (long position = 0; position + JOURNAL_ENTRY_SIZE <= journalSize; position += JOURNAL_ENTRY_SIZE) {
+            entry.clear();
+            while (entry.hasRemaining()) {
+                if (journal.read(entry, position + entry.position()) < 0) {
+                    break;
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(entry.array(), 4, JOURNAL_ENTRY_SIZE - 4);
+            if ((int) crc.getValue() != entry.getInt(0)) {
+                //崩溃时没有写完的条目，对应的页还没有被修改过
+                break;
+            }
+            long pagePosition = (long) entry.getInt(4) * PAGE_SIZE;
+            entry.position(8);
+            while (entry.hasRemaining()) {
+                pagePosition += channel.write(entry, pagePosition);
+            }
+        }
+        channel.force(true);
+        journal.truncate(0);
+        journal.force(true);
+    }
+
+    private Node decode(int id) {
+        ByteBuffer buffer = region(id);
+        int base = offset(id);
+        Node node = new Node(id, buffer.getInt(base));
+        node.count = buffer.getInt(base + COUNT_OFFSET);
+        node.next = buffer.getInt(base + NEXT_OFFSET);
+        if (node.type == LEAF) {
+            for (int i = 0; i < node.count; i++) {
+                node.keys[i] = codec.read(buffer, base + NODE_HEADER_SIZE + i * keySize);
+            }
+        } else if (node.type == INNER) {
+            for (int i = 0; i <= node.count; i++) {
+                node.children[i] = buffer.getInt(base + NODE_HEADER_SIZE + i * 4);
+            }
+            for (int i = 0; i < node.count; i++) {
+                node.keys[i] = codec.read(buffer, base + innerKeysOffset + i * keySize);
+            }
+        }
+        return node;
+    }
+
+    private void encode(Node node) {
+        ByteBuffer buffer = region(node.id);
+        int base = offset(node.id);
+        buffer.putInt(base, node.type);
+        buffer.putInt(base + COUNT_OFFSET, node.count);
+        buffer.putInt(base + NEXT_OFFSET, node.next);
+        if (node.type == LEAF) {
+            for (int i = 0; i < node.count; i++) {
+                codec.write(buffer, base + NODE_HEADER_SIZE + i * keySize, node.key(i));
+            }
+        } else if (node.type == INNER) {
+            for (int i = 0; i <= node.count; i++) {
+                buffer.putInt(base + NODE_HEADER_SIZE + i * 4, node.children[i]);
+            }
+            for (int i = 0; i < node.count; i++) {
+                codec.write(buffer, base + innerKeysOffset + i * keySize, node.key(i));
+            }
+        }
+    }
+
+    /**
+     * 保证至少映射了minPages页，不足时按2倍扩大映射，只有最后一个region需要重新映射
+     */
+    private void ensureMapped(int minPages) {
+        if (minPages <= mappedPages) {
+            return;
+        }
+        long newPages = Math.min(Math.max((long) mappedPages * 2, minPages), Integer.MAX_VALUE);
+        int regionCount = (int) ((newPages + REGION_PAGES - 1) / REGION_PAGES);
+        try {
+            for (int r = 0; r < regionCount; r++) {
+                long bytes = Math.min(REGION_PAGES, newPages - (long) r * REGION_PAGES) * PAGE_SIZE;
+                if (r < regions.size() && regions.get(r).capacity() == bytes) {
+                    //已经完整映射的region无需变动
+                    continue;
+                }
+                //以READ_WRITE方式映射超出文件末尾的区域时，文件会被自动扩展
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE,
+                        (long) r * REGION_PAGES * PAGE_SIZE, bytes);
+                if (r < regions.size()) {
+                    regions.set(r, region);
+                } else {
+                    regions.add(region);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to remap file", e);
+        }
+        mappedPages = (int) newPages;
+    }
+
+    private ByteBuffer region(int id) {
+        return regions.get(id / REGION_PAGES);
+    }
+
+    private int offset(int id) {
+        return (id % REGION_PAGES) * PAGE_SIZE;
+    }
+
+    /**
+     * 沿叶子链表遍历的迭代器，迭代期间只允许通过迭代器自身的remove修改树
+     */
+    class LeafIterator implements Iterator<T> {
+
+        private Node leaf;
+        private int index;
+        private final T hi;//上界(包含)，null表示没有上界
+        private T lastReturned;
+
+        LeafIterator(T lo, T hi) {
+            this.hi = hi;
+            seek(lo, true);
+        }
+
+        /**
+         * 定位到第一个大于(或等于)from的元素
+         */
+        private void seek(T from, boolean inclusive) {
+            if (from == null) {
+                leaf = firstLeaf();
+                index = 0;
+            } else {
+                Node node = node(root);
+                while (!node.isLeaf()) {
+                    node = node(node.children[node.childIndex(from)]);
+                }
+                leaf = node;
+                int pos = leaf.search(from);
+                index = pos >= 0 ? (inclusive ? pos : pos + 1) : -(pos + 1);
+            }
+            skipExhaustedLeaves();
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index >= leaf.count) {
+                leaf = leaf.next == NIL ? null : node(leaf.next);
+                index = 0;
+            }
+        }
+
+        public boolean hasNext() {
+            return leaf != null && (hi == null || leaf.key(index).compareTo(hi) <= 0);
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = leaf.key(index++);
+            skipExhaustedLeaves();
+            return lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            //删除可能引起节点的借用与合并，因此删除后重新定位到第一个大于被删除元素的位置
+            DiskBPlusTree.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+        }
+
+    }
+
+}
@@ -1,62 +1,41 @@
 package io.github.lukaicheng.datastructures.chapter4;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
- * 
- * Chapter 4.1.2 树的遍历及应用 
- *  
- * 以下示例代码展示了简单的目录打印，遍历策略采用了先序遍历
+ *
+ * Chapter 4.1.2 树的遍历及应用
+ *
+ * 以下示例代码展示了目录的打印及大小统计：文件在读取目录时即被打印(先序)，
+ * 目录的总大小需要等所有子目录统计完成后才能得到(后序)，两者在ParallelDirectoryWalker的一次并行遍历中完成。
+ * 由于多个目录被同时遍历，输出使用相对路径而不是缩进来表示层次
  */
 public class FileListDemo {
 
     public static void main(String[] args) {
-        String path = "D:\\Document";
-        int depth = 0;
-        File file = new File(path);
-        if (!file.exists()) {
+        final Path root = Paths.get(args.length > 0 ? args[0] : "D:\\Document");
+        if (!Files.exists(root)) {
             System.out.println("Path not exist!");
             return;
         }
-        printAll(file, depth);
-        listAndSum(file, depth);
-    }
-
+        new ParallelDirectoryWalker().walk(root, new ParallelDirectoryWalker.Visitor() {
 
-    private static void printAll(File file, int depth) {
-        String space = "";
-        if (depth > 0) {
-            for (int i = 0; i < depth; i++) {
-                space += "\t";
+            public void visitFile(Path file, BasicFileAttributes attrs, int depth) {
+                System.out.println(String.format("%s,%-4s", root.relativize(file), attrs.size()));
             }
-        }
-        System.out.println(space + file.getName());
-        if (file.isDirectory()) {
-            File[] files = file.listFiles();
-            for (File childFile : files) {
-                printAll(childFile, depth + 1);
-            }
-        }
-    }
-    
-    private static long listAndSum(File file, int depth) {
-        long totalSize = 0;
-        String space = "";
-        if (depth > 0) {
-            for (int i = 0; i < depth; i++) {
-                space += "\t";
+
+            public void directoryTotal(Path dir, long totalSize, int depth) {
+                System.out.println(String.format("%s/,%-4s", root.relativize(dir), totalSize));
             }
-        }
-        if (file.isDirectory()) {
-            File[] files = file.listFiles();
-            for (File childFile : files) {
-                totalSize += listAndSum(childFile, depth + 1);
+
+            public void visitFailed(Path path, IOException e) {
+                System.err.println(path + ": " + e);
             }
-        } else {
-            totalSize += file.length();
-        }
-        System.out.println(String.format("%s,%-4s", (space + file.getName()), totalSize));
-        return totalSize;
+        });
     }
 
 }
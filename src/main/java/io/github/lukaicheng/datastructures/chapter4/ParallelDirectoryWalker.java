@@ -0,0 +1,148 @@
+package io.github.lukaicheng.datastructures.chapter4;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 基于Fork/Join的并行目录遍历，一次遍历同时得到每个文件的属性以及每个目录的总大小
+ *
+ * 每个目录对应一个任务：读取目录项时直接处理其中的文件，子目录则派生(fork)为新的任务交给其他线程窃取，
+ * 目录流关闭之后再依次等待(join)子目录的结果并累加，因此目录的总大小总是在其全部子目录完成之后才回调，相当于后序遍历。
+ * 同时处于打开状态的目录流不会超过线程数，并行度由ForkJoinPool的线程数限制。
+ *
+ * 读取目录项和属性使用NIO的Files.newDirectoryStream和Files.readAttributes，每个目录项只需要一次stat，
+ * 符号链接不会被跟随，按普通文件计算其自身的大小
+ *
+ */
+public class ParallelDirectoryWalker {
+
+    /**
+     * 遍历结果的回调，会被多个线程同时调用，实现类需要保证线程安全；不同目录之间的回调顺序是不确定的
+     */
+    public interface Visitor {
+
+        /**
+         * 即将读取一个目录的目录项，attrs在读取之前获得，depth为相对于根目录的深度
+         */
+        default void visitDirectory(Path dir, BasicFileAttributes attrs, int depth) {
+        }
+
+        /**
+         * 访问一个非目录的文件，depth为相对于根目录的深度，根目录的深度为0
+         */
+        void visitFile(Path file, BasicFileAttributes attrs, int depth);
+
+        /**
+         * 目录及其全部子目录都已遍历完成，totalSize为其中所有文件的大小之和
+         */
+        void directoryTotal(Path dir, long totalSize, int depth);
+
+        /**
+         * 无法读取某个目录或文件的属性(如权限不足)，该项按大小0计算，遍历继续进行
+         */
+        void visitFailed(Path path, IOException e);
+
+    }
+
+    private final int parallelism;
+
+    /**
+     * 使用与处理器核数相同的线程数
+     */
+    public ParallelDirectoryWalker() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelDirectoryWalker(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Illegal parallelism: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 遍历root并返回其中所有文件的大小之和，root不是目录时只访问它本身
+     */
+    public long walk(Path root, Visitor visitor) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(root, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            visitor.visitFailed(root, e);
+            return 0;
+        }
+        if (!attrs.isDirectory()) {
+            visitor.visitFile(root, attrs, 0);
+            return attrs.size();
+        }
+        visitor.visitDirectory(root, attrs, 0);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new DirectoryTask(root, 0, visitor));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class DirectoryTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        private final int depth;
+        private final Visitor visitor;
+
+        DirectoryTask(Path dir, int depth, Visitor visitor) {
+            this.dir = dir;
+            this.depth = depth;
+            this.visitor = visitor;
+        }
+
+        @Override
+        protected Long compute() {
+            long totalSize = 0;
+            List<DirectoryTask> subtasks = new ArrayList<DirectoryTask>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        visitor.visitFailed(entry, e);
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        //子目录交给其他空闲线程处理，当前线程继续读取本目录
+                        visitor.visitDirectory(entry, attrs, depth + 1);
+                        DirectoryTask subtask = new DirectoryTask(entry, depth + 1, visitor);
+                        subtask.fork();
+                        subtasks.add(subtask);
+                    } else {
+                        visitor.visitFile(entry, attrs, depth + 1);
+                        totalSize += attrs.size();
+                    }
+                }
+            } catch (IOException e) {
+                visitor.visitFailed(dir, e);
+            } catch (DirectoryIteratorException e) {
+                visitor.visitFailed(dir, e.getCause());
+            }
+            //等待期间当前线程会去执行其他任务，不会空等
+            for (DirectoryTask subtask : subtasks) {
+                totalSize += subtask.join();
+            }
+            visitor.directoryTotal(dir, totalSize, depth);
+            return totalSize;
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+package io.github.lukaicheng.datastructures.chapter4;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * AVLTree的持久化(persistent)版本：节点一经创建就不再修改
+ *
+ * 插入和删除不在原节点上修改，而是复制从根到目标位置路径上的O(logN)个节点(路径复制)，
+ * 未被修改的子树在新旧版本之间共享，最后用一次volatile写发布新的根节点。
+ * 因此snapshot()只需要记下当前的根节点，时间复杂度O(1)；读操作始终在某个不可变的版本上进行，无需加锁。
+ * 写操作之间通过同一把锁互斥，避免并发修改时丢失更新。
+ *
+ */
+public class PersistentAVLTree<T extends Comparable<? super T>> implements Iterable<T> {
+
+    //树高不超过1.44log(n+2)，迭代器的显式栈使用固定长度的数组
+    private static final int MAX_DEPTH = 64;
+
+    private volatile AVLNode<T> root;
+
+    private static class AVLNode<T> {
+
+        final T element;
+        final AVLNode<T> left;
+        final AVLNode<T> right;
+        final int height;
+        final int size;//以该节点为根的子树节点数
+
+        AVLNode(T element, AVLNode<T> left, AVLNode<T> right) {
+            this.element = element;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    public PersistentAVLTree() {
+    }
+
+    private PersistentAVLTree(AVLNode<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * 返回当前版本的只读快照，之后对本树的修改不会影响快照，时间复杂度O(1)
+     *
+     * 快照本身也是一棵PersistentAVLTree，对其修改同样只会产生新版本，不会影响本树
+     */
+    public PersistentAVLTree<T> snapshot() {
+        return new PersistentAVLTree<T>(root);
+    }
+
+    public synchronized void makeEmpty() {
+        root = null;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean contains(T t) {
+        AVLNode<T> node = root;
+        while (node != null) {
+            int compareResult = t.compareTo(node.element);
+            if (compareResult == 0) {
+                return true;
+            }
+            node = compareResult < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    public T findMin() {
+        AVLNode<T> node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.element;
+    }
+
+    public T findMax() {
+        AVLNode<T> node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.element;
+    }
+
+    public synchronized void insert(T x) {
+        root = insert(x, root);
+    }
+
+    public synchronized void remove(T x) {
+        root = remove(x, root);
+    }
+
+    /**
+     * 按从小到大的顺序遍历迭代器创建时刻的版本，不支持remove
+     */
+    public Iterator<T> iterator() {
+        return new InOrderIterator(root);
+    }
+
+    class InOrderIterator implements Iterator<T> {
+
+        private final AVLNode<T>[] stack = allocateStack();
+        private int top = 0;//栈中节点个数
+
+        InOrderIterator(AVLNode<T> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(AVLNode<T> node) {
+            for (; node != null; node = node.left) {
+                stack[top++] = node;
+            }
+        }
+
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        public T next() {
+            if (top == 0) {
+                throw new NoSuchElementException();
+            }
+            AVLNode<T> node = stack[--top];
+            pushLeft(node.right);
+            return node.element;
+        }
+
+        public void remove() {
+            //遍历的版本不可修改
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * 返回插入x之后的新子树，x已存在时原样返回tree
+     */
+    private AVLNode<T> insert(T x, AVLNode<T> tree) {
+        if (tree == null) {
+            return new AVLNode<T>(x, null, null);
+        }
+        int compareResult = x.compareTo(tree.element);
+        if (compareResult < 0) {
+            AVLNode<T> left = insert(x, tree.left);
+            return left == tree.left ? tree : balance(tree.element, left, tree.right);
+        } else if (compareResult > 0) {
+            AVLNode<T> right = insert(x, tree.right);
+            return right == tree.right ? tree : balance(tree.element, tree.left, right);
+        }
+        //已存在，无需复制任何节点
+        return tree;
+    }
+
+    /**
+     * 返回删除x之后的新子树，x不存在时原样返回tree
+     */
+    private AVLNode<T> remove(T x, AVLNode<T> tree) {
+        if (tree == null) {
+            return null;
+        }
+        int compareResult = x.compareTo(tree.element);
+        if (compareResult < 0) {
+            AVLNode<T> left = remove(x, tree.left);
+            return left == tree.left ? tree : balance(tree.element, left, tree.right);
+        } else if (compareResult > 0) {
+            AVLNode<T> right = remove(x, tree.right);
+            return right == tree.right ? tree : balance(tree.element, tree.left, right);
+        }
+        if (tree.left != null && tree.right != null) {
+            //左右子树都存在，用右子树最小元素作为新节点的元素
+            AVLNode<T> min = tree.right;
+            while (min.left != null) {
+                min = min.left;
+            }
+            return balance(min.element, tree.left, removeMin(tree.right));
+        }
+        return (tree.left != null) ? tree.left : tree.right;
+    }
+
+    private AVLNode<T> removeMin(AVLNode<T> tree) {
+        if (tree.left == null) {
+            return tree.right;
+        }
+        return balance(tree.element, removeMin(tree.left), tree.right);
+    }
+
+    /**
+     * 以element为根、left和right为左右子树创建新节点，两棵子树的高度差最多为2，必要时通过旋转恢复平衡
+     *
+     * 旋转同样不修改已有节点，而是按旋转后的形状创建新节点
+     */
+    private AVLNode<T> balance(T element, AVLNode<T> left, AVLNode<T> right) {
+        if (height(left) - height(right) > 1) {
+            if (height(left.left) >= height(left.right)) {
+                //左左情况 - 单旋转
+                return new AVLNode<T>(left.element, left.left, new AVLNode<T>(element, left.right, right));
+            }
+            //左右情况 - 双旋转
+            AVLNode<T> pivot = left.right;
+            return new AVLNode<T>(pivot.element,
+                    new AVLNode<T>(left.element, left.left, pivot.left),
+                    new AVLNode<T>(element, pivot.right, right));
+        } else if (height(right) - height(left) > 1) {
+            if (height(right.right) >= height(right.left)) {
+                //右右情况 - 单旋转
+                return new AVLNode<T>(right.element, new AVLNode<T>(element, left, right.left), right.right);
+            }
+            //右左情况 - 双旋转
+            AVLNode<T> pivot = right.left;
+            return new AVLNode<T>(pivot.element,
+                    new AVLNode<T>(element, left, pivot.left),
+                    new AVLNode<T>(right.element, pivot.right, right.right));
+        }
+        return new AVLNode<T>(element, left, right);
+    }
+
+    /**
+     * 返回树的高，如果是空树，则返回-1
+     */
+    private static int height(AVLNode<?> tree) {
+        return tree == null ? -1 : tree.height;
+    }
+
+    /**
+     * 返回子树的节点数，如果是空树，则返回0
+     */
+    private static int size(AVLNode<?> tree) {
+        return tree == null ? 0 : tree.size;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private AVLNode<T>[] allocateStack() {
+        return new AVLNode[MAX_DEPTH];
+    }
+
+}
@@ -0,0 +1,349 @@
+package io.github.lukaicheng.datastructures.chapter5;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的分离链接散列表，思路与JDK8的ConcurrentHashMap相同
+ *
+ * 一、桶数组是AtomicReferenceArray，表的大小为2的幂。向空桶插入时用CAS发布新的链表头，不加锁；
+ *    桶非空时只锁住该桶的链表头节点，不同桶上的插入和删除互不影响
+ * 二、contains完全不加锁：链表节点的next是volatile的，被删除的节点仍指向原来的后继，遍历不会中断
+ * 三、扩容由多个线程协作完成：旧表被划分为若干段，线程通过transferIndex认领一段，逐个把桶拆分到新表的i和i + n两个位置，
+ *    搬完的桶放入ForwardingNode。其他线程遇到ForwardingNode时先帮忙搬迁再到新表中重试，查找则直接转到新表
+ * 四、元素个数用LongAdder统计，避免所有线程竞争同一个计数器
+ *
+ * @see java.util.concurrent.ConcurrentHashMap
+ */
+public class ConcurrentSeparateChainingHashTable<T> {
+
+    //ForwardingNode的散列值，普通节点的散列值总是非负的
+    private static final int MOVED = -1;
+    //每个线程一次认领的最少桶数
+    private static final int MIN_TRANSFER_STRIDE = 16;
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    private static class Node<T> {
+
+        final int hash;
+        final T element;
+        volatile Node<T> next;
+
+        Node(int hash, T element, Node<T> next) {
+            this.hash = hash;
+            this.element = element;
+            this.next = next;
+        }
+    }
+
+    /**
+     * 已搬迁的桶中的占位节点，指向本次扩容
+     */
+    private static class ForwardingNode<T> extends Node<T> {
+
+        final Resize<T> resize;
+
+        ForwardingNode(Resize<T> resize) {
+            super(MOVED, null, null);
+            this.resize = resize;
+        }
+    }
+
+    /**
+     * 一次扩容的状态，所有参与搬迁的线程共享
+     */
+    private static class Resize<T> {
+
+        final AtomicReferenceArray<Node<T>> oldTable;
+        final AtomicReferenceArray<Node<T>> newTable;
+        final ForwardingNode<T> forwarding = new ForwardingNode<T>(this);
+        //尚未被认领的桶为[0, transferIndex)，从高往低认领
+        final AtomicInteger transferIndex;
+        //已搬迁完成的桶数，等于旧表大小时扩容结束
+        final AtomicInteger transferred = new AtomicInteger();
+
+        Resize(AtomicReferenceArray<Node<T>> oldTable) {
+            this.oldTable = oldTable;
+            this.newTable = new AtomicReferenceArray<Node<T>>(oldTable.length() * 2);
+            this.transferIndex = new AtomicInteger(oldTable.length());
+        }
+    }
+
+    private volatile AtomicReferenceArray<Node<T>> table;
+    //元素个数达到该值时扩容，总是与table一起更新
+    private volatile int threshold;
+    //正在进行的扩容，没有扩容时为null
+    private volatile Resize<T> resizing;
+    private final LongAdder count = new LongAdder();
+
+    public ConcurrentSeparateChainingHashTable() {
+        this(Hashing.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计的元素个数，据此分配足够的容量避免扩容
+     */
+    public ConcurrentSeparateChainingHashTable(int expectedSize) {
+        int capacity = Hashing.tableSizeFor(expectedSize);
+        threshold = Hashing.threshold(capacity);
+        table = new AtomicReferenceArray<Node<T>>(capacity);
+    }
+
+    /**
+     * 在并发修改时只是一个近似值
+     */
+    public int size() {
+        long n = count.sum();
+        return n < 0 ? 0 : n > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) n;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 不加锁的查找
+     */
+    public boolean contains(T t) {
+        int hash = spread(t);
+        AtomicReferenceArray<Node<T>> tab = table;
+        for (;;) {
+            Node<T> e = tab.get(hash & (tab.length() - 1));
+            if (e == null) {
+                return false;
+            }
+            if (e.hash == MOVED) {
+                //该桶已搬到新表，新表中的对应位置一定已经就绪
+                tab = ((ForwardingNode<T>) e).resize.newTable;
+                continue;
+            }
+            for (; e != null; e = e.next) {
+                if (e.hash == hash && e.element.equals(t)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @return 元素原先不存在并被插入时返回true
+     */
+    public boolean insert(T t) {
+        int hash = spread(t);
+        AtomicReferenceArray<Node<T>> tab = table;
+        for (;;) {
+            int i = hash & (tab.length() - 1);
+            Node<T> head = tab.get(i);
+            if (head == null) {
+                if (tab.compareAndSet(i, null, new Node<T>(hash, t, null))) {
+                    break;
+                }
+                continue;
+            }
+            if (head.hash == MOVED) {
+                tab = helpTransfer((ForwardingNode<T>) head);
+                continue;
+            }
+            synchronized (head) {
+                if (tab.get(i) != head) {
+                    //加锁前链表头被删除或者该桶已被搬走，重新读取
+                    continue;
+                }
+                Node<T> e = head;
+                for (;;) {
+                    if (e.hash == hash && e.element.equals(t)) {
+                        return false;
+                    }
+                    if (e.next == null) {
+                        e.next = new Node<T>(hash, t, null);
+                        break;
+                    }
+                    e = e.next;
+                }
+            }
+            break;
+        }
+        addCount(1);
+        return true;
+    }
+
+    /**
+     * @return 元素存在并被删除时返回true
+     */
+    public boolean remove(T t) {
+        int hash = spread(t);
+        AtomicReferenceArray<Node<T>> tab = table;
+        for (;;) {
+            int i = hash & (tab.length() - 1);
+            Node<T> head = tab.get(i);
+            if (head == null) {
+                return false;
+            }
+            if (head.hash == MOVED) {
+                tab = helpTransfer((ForwardingNode<T>) head);
+                continue;
+            }
+            boolean removed = false;
+            synchronized (head) {
+                if (tab.get(i) != head) {
+                    continue;
+                }
+                for (Node<T> pred = null, e = head; e != null; pred = e, e = e.next) {
+                    if (e.hash == hash && e.element.equals(t)) {
+                        //被删除节点的next保持不变，正在遍历它的contains仍能走到链表末尾
+                        if (pred == null) {
+                            tab.set(i, e.next);
+                        } else {
+                            pred.next = e.next;
+                        }
+                        removed = true;
+                        break;
+                    }
+                }
+            }
+            if (removed) {
+                addCount(-1);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * 逐个桶清空，与并发的插入交错执行时，清空结束后表中可能仍有元素
+     */
+    public void makeEmpty() {
+        long delta = 0;
+        AtomicReferenceArray<Node<T>> tab = table;
+        int i = 0;
+        while (i < tab.length()) {
+            Node<T> head = tab.get(i);
+            if (head == null) {
+                i++;
+            } else if (head.hash == MOVED) {
+                tab = helpTransfer((ForwardingNode<T>) head);
+                i = 0;
+            } else {
+                synchronized (head) {
+                    if (tab.get(i) == head) {
+                        for (Node<T> e = head; e != null; e = e.next) {
+                            delta--;
+                        }
+                        tab.set(i++, null);
+                    }
+                }
+            }
+        }
+        count.add(delta);
+    }
+
+    /**
+     * 高位也参与运算，并保证结果非负以区别于MOVED
+     */
+    private static int spread(Object t) {
+        return Hashing.mix(t.hashCode()) & 0x7fffffff;
+    }
+
+    private AtomicReferenceArray<Node<T>> helpTransfer(ForwardingNode<T> forwarding) {
+        transfer(forwarding.resize);
+        return forwarding.resize.newTable;
+    }
+
+    private void addCount(int delta) {
+        count.add(delta);
+        if (delta > 0 && count.sum() >= threshold) {
+            Resize<T> r = resizing;
+            if (r == null) {
+                r = startResize();
+            }
+            if (r != null) {
+                transfer(r);
+            }
+        }
+    }
+
+    /**
+     * 只有新建扩容需要加锁，搬迁本身由各线程并发完成
+     *
+     * @return 正在进行的扩容，不需要扩容时返回null
+     */
+    private synchronized Resize<T> startResize() {
+        //先读resizing再读table：扩容结束时先发布新表再清除resizing，因此看到resizing为null时读到的table一定是最新的
+        Resize<T> r = resizing;
+        if (r != null) {
+            return r;
+        }
+        AtomicReferenceArray<Node<T>> tab = table;
+        if (count.sum() < threshold || tab.length() >= Hashing.MAXIMUM_CAPACITY) {
+            return null;
+        }
+        r = new Resize<T>(tab);
+        resizing = r;
+        return r;
+    }
+
+    /**
+     * 反复认领一段尚未搬迁的桶并搬到新表，没有可认领的桶时返回。完成最后一段的线程负责发布新表
+     */
+    private void transfer(Resize<T> r) {
+        int n = r.oldTable.length();
+        int stride = Math.max(MIN_TRANSFER_STRIDE, n / (8 * NCPU));
+        for (;;) {
+            int end = r.transferIndex.get();
+            if (end <= 0) {
+                return;
+            }
+            int start = Math.max(0, end - stride);
+            if (!r.transferIndex.compareAndSet(end, start)) {
+                continue;
+            }
+            for (int i = end - 1; i >= start; i--) {
+                transferBin(r, i);
+            }
+            if (r.transferred.addAndGet(end - start) == n) {
+                threshold = Hashing.threshold(r.newTable.length());
+                table = r.newTable;
+                resizing = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 把旧表第i个桶拆分到新表的i和i + n两个桶，再放入ForwardingNode。
+     * 旧节点保持不变(正在遍历旧链表的contains不受影响)，新表中使用复制出的节点
+     */
+    private void transferBin(Resize<T> r, int i) {
+        AtomicReferenceArray<Node<T>> oldTable = r.oldTable;
+        int n = oldTable.length();
+        for (;;) {
+            Node<T> head = oldTable.get(i);
+            if (head == null) {
+                if (oldTable.compareAndSet(i, null, r.forwarding)) {
+                    return;
+                }
+                continue;
+            }
+            synchronized (head) {
+                if (oldTable.get(i) != head) {
+                    continue;
+                }
+                Node<T> low = null;
+                Node<T> high = null;
+                for (Node<T> e = head; e != null; e = e.next) {
+                    if ((e.hash & n) == 0) {
+                        low = new Node<T>(e.hash, e.element, low);
+                    } else {
+                        high = new Node<T>(e.hash, e.element, high);
+                    }
+                }
+                r.newTable.set(i, low);
+                r.newTable.set(i + n, high);
+                oldTable.set(i, r.forwarding);
+                return;
+            }
+        }
+    }
+
+}
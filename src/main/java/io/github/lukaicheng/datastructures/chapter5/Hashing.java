@@ -0,0 +1,64 @@
+package io.github.lukaicheng.datastructures.chapter5;
+
+/**
+ * 开放定址散列表共用的散列混合与容量计算
+ *
+ * 表的大小都取2的幂，用hash & (capacity - 1)代替取模，因此散列值的低位必须分布均匀。
+ * 这里采用MurmurHash3的最终混合函数(fmix)，使输入的每一位都会影响输出的低位：
+ * 连续的整数、只有高位不同的整数经过混合后都会均匀地分散到整张表中
+ *
+ */
+final class Hashing {
+
+    static final int DEFAULT_CAPACITY = 16;
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private Hashing() {
+    }
+
+    /**
+     * MurmurHash3的fmix32
+     */
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * MurmurHash3的fmix64，返回结果的低32位
+     */
+    static int mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * 返回能在3/4装载因子下容纳expectedSize个元素的最小的2的幂
+     */
+    static int tableSizeFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + expectedSize);
+        }
+        long capacity = Math.max(DEFAULT_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Integer.highestOneBit((int) capacity - 1) << 1;
+    }
+
+    /**
+     * 容量为capacity时允许的最多元素个数，对应3/4的装载因子
+     */
+    static int threshold(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+}
@@ -0,0 +1,202 @@
+package io.github.lukaicheng.datastructures.chapter5;
+
+import java.util.Arrays;
+
+/**
+ * 键为int、值为int的散列映射：线性探测，键和值分别存放在两个平行的基本类型数组中，不装箱
+ *
+ * 用0表示空槽位，键0对应的值单独保存。表的大小总是2的幂，键经过Hashing.mix混合后取低位作为初始位置。
+ * 删除采用后移删除，不需要墓碑标记。查找、插入和删除在不扩容时都不分配任何内存
+ *
+ */
+public class IntIntHashMap {
+
+    //表示空槽位的键
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    //数组中的映射个数，不包括键0
+    private int assigned;
+    private int threshold;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashMap() {
+        this(Hashing.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计的映射个数，据此分配足够的容量避免扩容
+     */
+    public IntIntHashMap(int expectedSize) {
+        allocateArrays(Hashing.tableSizeFor(expectedSize));
+    }
+
+    public void makeEmpty() {
+        Arrays.fill(keys, EMPTY);
+        assigned = 0;
+        hasZeroKey = false;
+    }
+
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        return findPos(key) >= 0;
+    }
+
+    /**
+     * 返回键对应的值，键不存在时返回defaultValue
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int pos = findPos(key);
+        return pos >= 0 ? values[pos] : defaultValue;
+    }
+
+    /**
+     * @return 键原先不存在时返回true
+     */
+    public boolean put(int key, int value) {
+        if (key == EMPTY) {
+            boolean added = !hasZeroKey;
+            hasZeroKey = true;
+            zeroValue = value;
+            return added;
+        }
+        int pos = Hashing.mix(key) & mask;
+        int existing;
+        while ((existing = keys[pos]) != EMPTY) {
+            if (existing == key) {
+                values[pos] = value;
+                return false;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++assigned > threshold) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * 把键对应的值加上delta，键不存在时视为0，常用于计数
+     *
+     * @return 相加之后的值
+     */
+    public int addTo(int key, int delta) {
+        if (key == EMPTY) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int pos = Hashing.mix(key) & mask;
+        int existing;
+        while ((existing = keys[pos]) != EMPTY) {
+            if (existing == key) {
+                return values[pos] += delta;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = delta;
+        if (++assigned > threshold) {
+            rehash();
+        }
+        return delta;
+    }
+
+    /**
+     * @return 键存在并被删除时返回true
+     */
+    public boolean remove(int key) {
+        if (key == EMPTY) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+            return removed;
+        }
+        int pos = findPos(key);
+        if (pos < 0) {
+            return false;
+        }
+        shiftBack(pos);
+        assigned--;
+        return true;
+    }
+
+    /**
+     * 返回非0键所在的槽位，不存在时返回-1
+     */
+    private int findPos(int key) {
+        int pos = Hashing.mix(key) & mask;
+        int existing;
+        while ((existing = keys[pos]) != EMPTY) {
+            if (existing == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 后移删除：从空出的槽位gap往后扫描同一段连续区间，初始位置不在(gap, next]之间的映射可以前移填补空位，
+     * 填补后它原来的位置成为新的空位，直到遇到空槽位为止
+     */
+    private void shiftBack(int gap) {
+        int next = (gap + 1) & mask;
+        int key;
+        while ((key = keys[next]) != EMPTY) {
+            int home = Hashing.mix(key) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        if (oldKeys.length == Hashing.MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("IntIntHashMap is full");
+        }
+        allocateArrays(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int pos = Hashing.mix(key) & mask;
+                while (keys[pos] != EMPTY) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocateArrays(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+}
@@ -0,0 +1,151 @@
+package io.github.lukaicheng.datastructures.chapter5;
+
+import java.util.Arrays;
+
+/**
+ * 元素为long的散列集合：线性探测，键直接存放在long数组中，不装箱，也不调用equals和hashCode
+ *
+ * 用0表示空槽位，元素0本身单独用一个标志位记录。表的大小总是2的幂，键经过Hashing.mix混合后取低位作为初始位置。
+ * 删除采用后移删除，不需要墓碑标记。contains、add和remove在不扩容时都不分配任何内存
+ *
+ */
+public class LongHashSet {
+
+    //表示空槽位的键
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int mask;
+    //数组中的元素个数，不包括0
+    private int assigned;
+    private int threshold;
+    private boolean hasZeroKey;
+
+    public LongHashSet() {
+        this(Hashing.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计的元素个数，据此分配足够的容量避免扩容
+     */
+    public LongHashSet(int expectedSize) {
+        allocateArray(Hashing.tableSizeFor(expectedSize));
+    }
+
+    public void makeEmpty() {
+        Arrays.fill(keys, EMPTY);
+        assigned = 0;
+        hasZeroKey = false;
+    }
+
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        int pos = Hashing.mix(key) & mask;
+        long existing;
+        while ((existing = keys[pos]) != EMPTY) {
+            if (existing == key) {
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return 元素原先不存在并被插入时返回true
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            boolean added = !hasZeroKey;
+            hasZeroKey = true;
+            return added;
+        }
+        int pos = Hashing.mix(key) & mask;
+        long existing;
+        while ((existing = keys[pos]) != EMPTY) {
+            if (existing == key) {
+                return false;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        if (++assigned > threshold) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * @return 元素存在并被删除时返回true
+     */
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+            return removed;
+        }
+        int pos = Hashing.mix(key) & mask;
+        long existing;
+        while ((existing = keys[pos]) != EMPTY) {
+            if (existing == key) {
+                shiftBack(pos);
+                assigned--;
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 后移删除：从空出的槽位gap往后扫描同一段连续区间，初始位置不在(gap, next]之间的元素可以前移填补空位，
+     * 填补后它原来的位置成为新的空位，直到遇到空槽位为止
+     */
+    private void shiftBack(int gap) {
+        int next = (gap + 1) & mask;
+        long key;
+        while ((key = keys[next]) != EMPTY) {
+            int home = Hashing.mix(key) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = key;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        if (oldKeys.length == Hashing.MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("LongHashSet is full");
+        }
+        allocateArray(oldKeys.length * 2);
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                int pos = Hashing.mix(key) & mask;
+                while (keys[pos] != EMPTY) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+            }
+        }
+    }
+
+    private void allocateArray(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+}
@@ -6,53 +6,136 @@ package io.github.lukaicheng.datastructures.chapter5;
  * 
  * 开放定址法是除了分离链接法之外另外一种解决散列冲突的思路，常见的有线性探测法、平方探测法、双散列等。
  * 
+ * 删除只是把元素标记为非活动(墓碑)，墓碑仍然占据槽位并延长探测序列。因此这里分别统计活动元素和墓碑的个数：
+ * 插入时优先复用探测序列上的第一个墓碑；墓碑过多时按原大小重新散列，清除所有墓碑，探测长度和内存都不会因反复插入删除而增长。
+ * 
+ * 渐进式重新散列(incrementalRehash)：重新散列时不一次性搬迁所有元素，而是同时保留新旧两张表，
+ * 之后的每次操作顺带搬迁旧表中固定数量的槽位，新元素只插入新表，查找和删除则需要同时检查两张表。
+ * 这样单次操作的最坏耗时不再随表的大小增长，代价是搬迁期间两张表同时占用内存
+ * 
  * @see https://users.cs.fiu.edu/~weiss/dsaajava2/code/QuadraticProbingHashTable.java
  */
 public class QuadraticProbingHashTable<T> {
 
     private static final int DEFAULT_TABLE_SIZE = 11;
 
+    //渐进式重新散列时每次操作搬迁的旧表槽位数，不小于4才能保证在下一次需要重新散列之前搬迁完成
+    private static final int REHASH_STEP = 8;
+
+    //旧表中已搬走的槽位用它占位：它不与任何元素相等且不是活动的，因此不会截断旧表中其他元素的探测序列
+    @SuppressWarnings("rawtypes")
+    private static final HashEntry MOVED = new HashEntry<Object>(new Object(), false);
+
     private HashEntry<T>[] array;
+    //活动元素的个数，搬迁期间包括旧表中尚未搬走的元素
     private int currentSize;
+    //array中被逻辑删除、仍占据槽位的元素个数
+    private int tombstones;
+
+    private final boolean incrementalRehash;
+    //正在搬迁的旧表，不在搬迁时为null
+    private HashEntry<T>[] oldArray;
+    //旧表中下一个待搬迁的槽位
+    private int rehashIndex;
 
     public QuadraticProbingHashTable() {
         this(DEFAULT_TABLE_SIZE);
     }
 
     public QuadraticProbingHashTable(int size) {
-        allocateArray(size);
+        this(size, false);
+    }
+
+    /**
+     * @param incrementalRehash 是否采用渐进式重新散列
+     */
+    public QuadraticProbingHashTable(int size, boolean incrementalRehash) {
+        this.incrementalRehash = incrementalRehash;
+        array = allocateArray(size);
         makeEmpty();
     }
 
     public void makeEmpty() {
         currentSize = 0;
+        tombstones = 0;
+        oldArray = null;
         for (int i = 0; i < array.length; i++) {
             array[i] = null;
         }
     }
 
+    public int size() {
+        return currentSize;
+    }
+
     public boolean contains(T t) {
-        int pos = findPos(t);
-        return isActive(pos);
+        rehashStep();
+        if (isActive(array, findPos(array, t))) {
+            return true;
+        }
+        return oldArray != null && isActive(oldArray, findPos(oldArray, t));
     }
 
     public void insert(T t) {
-        int currentPos = findPos(t);
-        if (isActive(currentPos)) {
+        rehashStep();
+        if (oldArray != null && isActive(oldArray, findPos(oldArray, t))) {
+            //元素还在旧表中，则直接返回
+            return;
+        }
+        int offset = 1;
+        int currentPos = myhash(t, array.length);
+        //探测序列上的第一个墓碑
+        int tombstonePos = -1;
+        while (array[currentPos] != null && !array[currentPos].element.equals(t)) {
+            if (tombstonePos < 0 && !array[currentPos].isActive) {
+                tombstonePos = currentPos;
+            }
+            currentPos += offset;
+            offset += 2;
+            if (currentPos >= array.length) {
+                currentPos -= array.length;
+            }
+        }
+        if (isActive(array, currentPos)) {
             //如果元素已经存在，则直接返回
             return;
         }
+        if (tombstonePos < 0 && array[currentPos] != null) {
+            //遇到的是该元素自己被删除后留下的墓碑
+            tombstonePos = currentPos;
+        }
+        currentSize++;
+        if (tombstonePos >= 0) {
+            //复用墓碑，占据的槽位数不变，元素仍位于它后面可能存在的同值墓碑之前
+            array[tombstonePos].element = t;
+            array[tombstonePos].isActive = true;
+            tombstones--;
+            return;
+        }
         array[currentPos] = new HashEntry<T>(t);
-        if (++currentSize > array.length / 2) {
-            //当前散列表装载超过一半则需要重新散列
-            rehash();
+        if (currentSize + tombstones > array.length / 2) {
+            //当前散列表被占据的槽位超过一半则需要重新散列，活动元素不多时只需清除墓碑，不必扩大
+            rehash(currentSize > array.length / 4 ? nextPrime(2 * array.length) : array.length);
         }
     }
 
     public void remove(T t) {
-        int currentPos = findPos(t);
-        if (isActive(currentPos)) {
+        rehashStep();
+        int currentPos = findPos(array, t);
+        if (isActive(array, currentPos)) {
             array[currentPos].isActive = false;//逻辑删除，当重新散列的时候会真正移除元素
+            currentSize--;
+            if (++tombstones > array.length / 4) {
+                //墓碑过多时按原大小重新散列，避免探测序列越来越长
+                rehash(array.length);
+            }
+        } else if (oldArray != null) {
+            currentPos = findPos(oldArray, t);
+            if (isActive(oldArray, currentPos)) {
+                //旧表中的墓碑不必计数，搬迁时会被丢弃
+                oldArray[currentPos].isActive = false;
+                currentSize--;
+            }
         }
     }
 
@@ -72,12 +155,12 @@ public class QuadraticProbingHashTable<T> {
     }
 
     @SuppressWarnings("unchecked")
-    private void allocateArray(int arraySize) {
-        array = new HashEntry[arraySize];
+    private HashEntry<T>[] allocateArray(int arraySize) {
+        return new HashEntry[arraySize];
     }
 
-    private boolean isActive(int currentPos) {
-        return array[currentPos] != null && array[currentPos].isActive;
+    private boolean isActive(HashEntry<T>[] table, int currentPos) {
+        return table[currentPos] != null && table[currentPos].isActive;
     }
 
     /**
@@ -87,35 +170,91 @@ public class QuadraticProbingHashTable<T> {
      * 
      * 本方法实现了此平方探测法
      */
-    private int findPos(T t) {
+    private int findPos(HashEntry<T>[] table, T t) {
         int offset = 1;
-        int currentPos = myhash(t);
-        while (array[currentPos] != null && !array[currentPos].element.equals(t)) {
+        int currentPos = myhash(t, table.length);
+        while (table[currentPos] != null && !table[currentPos].element.equals(t)) {
             currentPos += offset;
             offset += 2;
-            if (currentPos >= array.length) {
-                currentPos -= array.length;
+            if (currentPos >= table.length) {
+                currentPos -= table.length;
             }
         }
         return currentPos;
     }
 
-    private void rehash() {
-        HashEntry<T>[] oldArray = array;
-        allocateArray(nextPrime(2 * oldArray.length));
-        currentSize = 0;
-        for (int i = 0; i < oldArray.length; i++) {
-            if (oldArray[i] != null && oldArray[i].isActive) { //在rehash阶段会把原先逻辑删除的元素真正移除
-                insert(oldArray[i].element);
+    /**
+     * 把活动元素重新放入大小为newSize的新表，墓碑在此过程中被丢弃，HashEntry对象直接复用。
+     * 渐进式模式下只创建新表，元素由之后的操作逐步搬迁
+     */
+    private void rehash(int newSize) {
+        if (oldArray != null) {
+            //上一次搬迁尚未完成(正常情况下不会发生)，先把它做完
+            migrate(oldArray.length - rehashIndex);
+        }
+        HashEntry<T>[] previous = array;
+        array = allocateArray(newSize);
+        tombstones = 0;
+        if (incrementalRehash) {
+            oldArray = previous;
+            rehashIndex = 0;
+            return;
+        }
+        for (int i = 0; i < previous.length; i++) {
+            if (previous[i] != null && previous[i].isActive) { //在rehash阶段会把原先逻辑删除的元素真正移除
+                place(previous[i]);
+            }
+        }
+    }
+
+    private void rehashStep() {
+        if (oldArray != null) {
+            migrate(REHASH_STEP);
+        }
+    }
+
+    /**
+     * 把旧表中从rehashIndex开始的最多slots个槽位中的活动元素搬到新表，旧表搬空后丢弃
+     */
+    @SuppressWarnings("unchecked")
+    private void migrate(int slots) {
+        int end = Math.min(oldArray.length, rehashIndex + slots);
+        for (; rehashIndex < end; rehashIndex++) {
+            HashEntry<T> entry = oldArray[rehashIndex];
+            if (entry != null && entry.isActive) {
+                place(entry);
+                oldArray[rehashIndex] = MOVED;
             }
         }
+        if (rehashIndex == oldArray.length) {
+            oldArray = null;
+        }
+    }
+
+    /**
+     * 把一个已知不在新表中的活动元素放到它探测序列上的第一个空槽位或墓碑处
+     */
+    private void place(HashEntry<T> entry) {
+        int offset = 1;
+        int currentPos = myhash(entry.element, array.length);
+        while (array[currentPos] != null && array[currentPos].isActive) {
+            currentPos += offset;
+            offset += 2;
+            if (currentPos >= array.length) {
+                currentPos -= array.length;
+            }
+        }
+        if (array[currentPos] != null) {
+            tombstones--;
+        }
+        array[currentPos] = entry;
     }
 
-    private int myhash(T t) {
+    private int myhash(T t, int tableSize) {
         int hashVal = t.hashCode();
-        hashVal %= array.length;
+        hashVal %= tableSize;
         if (hashVal < 0) {
-            hashVal += array.length;
+            hashVal += tableSize;
         }
         return hashVal;
     }
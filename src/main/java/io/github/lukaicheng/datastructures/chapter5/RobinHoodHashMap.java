@@ -0,0 +1,227 @@
+package io.github.lukaicheng.datastructures.chapter5;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * 基于Robin Hood线性探测的散列映射
+ *
+ * 与QuadraticProbingHashTable每个槽位一个HashEntry对象不同，这里的键、值以及键的散列值分别存放在三个平行的数组中，
+ * 查找时先比较散列值，相等时才调用equals，不需要额外的对象跳转。
+ *
+ * Robin Hood探测：插入时如果当前槽位中元素的探测距离(实际位置与理想位置之差)比待插入元素的小，就让待插入元素"劫富济贫"
+ * 占据该槽位，再继续为被挤出的元素寻找位置。这样所有元素的探测距离都比较平均，查找时一旦遇到探测距离更小的元素，
+ * 就可以断定要找的键不存在，不必一直扫描到空槽位。
+ *
+ * 删除采用后移删除(backward shift)：把后面探测距离大于0的元素依次前移一位，不需要墓碑标记，装载因子不会因删除而虚高。
+ * 表的大小总是2的幂，用位运算代替取模，散列值经过混合后再取低位，避免hashCode低位分布不均导致聚集。
+ *
+ */
+public class RobinHoodHashMap<K, V> {
+
+    //散列值为0表示空槽位
+    private static final int EMPTY = 0;
+
+    private int[] hashes;
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int currentSize;
+    //元素个数超过该值时扩容，对应3/4的装载因子
+    private int threshold;
+
+    public RobinHoodHashMap() {
+        this(Hashing.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计的元素个数，据此分配足够的容量避免扩容
+     */
+    public RobinHoodHashMap(int expectedSize) {
+        allocateArrays(Hashing.tableSizeFor(expectedSize));
+    }
+
+    public void makeEmpty() {
+        Arrays.fill(hashes, EMPTY);
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        currentSize = 0;
+    }
+
+    public int size() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return findPos(key, hash(key)) >= 0;
+    }
+
+    /**
+     * 返回键对应的值，键不存在时返回null
+     */
+    public V get(K key) {
+        int pos = findPos(key, hash(key));
+        return pos >= 0 ? valueAt(pos) : null;
+    }
+
+    /**
+     * @return 键原先对应的值，键原先不存在时返回null
+     */
+    public V put(K key, V value) {
+        int hash = hash(key);
+        int pos = findPos(key, hash);
+        if (pos >= 0) {
+            V oldValue = valueAt(pos);
+            values[pos] = value;
+            return oldValue;
+        }
+        insert(hash, key, value);
+        return null;
+    }
+
+    /**
+     * 键不存在时才用mappingFunction计算值并插入，计算结果为null时不插入
+     *
+     * @return 键当前对应的值
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int hash = hash(key);
+        int pos = findPos(key, hash);
+        if (pos >= 0) {
+            return valueAt(pos);
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            //mappingFunction可能修改了本映射，因此不能直接沿用前面的查找结果
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return 被删除的值，键不存在时返回null
+     */
+    public V remove(K key) {
+        int pos = findPos(key, hash(key));
+        if (pos < 0) {
+            return null;
+        }
+        V oldValue = valueAt(pos);
+        //后移删除：把后面仍未处于理想位置的元素依次前移一位，直到遇到空槽位或已处于理想位置的元素
+        int next = (pos + 1) & mask;
+        while (hashes[next] != EMPTY && probeDistance(hashes[next], next) > 0) {
+            hashes[pos] = hashes[next];
+            keys[pos] = keys[next];
+            values[pos] = values[next];
+            pos = next;
+            next = (next + 1) & mask;
+        }
+        hashes[pos] = EMPTY;
+        keys[pos] = null;
+        values[pos] = null;
+        currentSize--;
+        return oldValue;
+    }
+
+    /**
+     * 返回键所在的槽位，不存在时返回-1
+     */
+    private int findPos(K key, int hash) {
+        int pos = hash & mask;
+        for (int distance = 0;; distance++) {
+            int h = hashes[pos];
+            if (h == EMPTY || probeDistance(h, pos) < distance) {
+                //如果key存在，它早就应该把这个探测距离更小的元素挤走了
+                return -1;
+            }
+            if (h == hash && keys[pos].equals(key)) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    /**
+     * 插入一个已知不存在的键
+     */
+    private void insert(int hash, Object key, Object value) {
+        int pos = hash & mask;
+        int distance = 0;
+        for (;;) {
+            int h = hashes[pos];
+            if (h == EMPTY) {
+                hashes[pos] = hash;
+                keys[pos] = key;
+                values[pos] = value;
+                break;
+            }
+            int existingDistance = probeDistance(h, pos);
+            if (existingDistance < distance) {
+                //当前元素离理想位置更近，由待插入元素占据该槽位，转而为被挤出的元素寻找位置
+                Object existingKey = keys[pos];
+                Object existingValue = values[pos];
+                hashes[pos] = hash;
+                keys[pos] = key;
+                values[pos] = value;
+                hash = h;
+                key = existingKey;
+                value = existingValue;
+                distance = existingDistance;
+            }
+            pos = (pos + 1) & mask;
+            distance++;
+        }
+        if (++currentSize > threshold) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        int[] oldHashes = hashes;
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        if (oldHashes.length == Hashing.MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("RobinHoodHashMap is full");
+        }
+        allocateArrays(oldHashes.length * 2);
+        currentSize = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY) {
+                insert(oldHashes[i], oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocateArrays(int capacity) {
+        hashes = new int[capacity];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+    /**
+     * 元素当前所在位置pos与其理想位置之间的距离
+     */
+    private int probeDistance(int hash, int pos) {
+        return (pos - (hash & mask)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int pos) {
+        return (V) values[pos];
+    }
+
+    /**
+     * 混合后的hashCode，0被映射为1以免与空槽位混淆
+     */
+    private static int hash(Object key) {
+        int h = Hashing.mix(key.hashCode());
+        return h == EMPTY ? 1 : h;
+    }
+
+}
@@ -1,5 +1,6 @@
 package io.github.lukaicheng.datastructures.chapter5;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -11,79 +12,148 @@ import java.util.List;
  * 
  * load factor : 散列表元素个数与该表大小的比。本实现中其值相当于1
  * 
+ * 渐进式重新散列(incrementalRehash)：扩大散列表时先只分配新表，旧表保留，之后的每次操作顺带把旧表中固定数量的链表搬到新表，
+ * 新元素只插入新表，查找和删除则需要同时检查两张表。这样单次操作的最坏耗时不再随表的大小增长。
+ * 为了让分配新表本身也不必逐个创建链表，链表总是在第一次插入时才创建
+ * 
  * @see https://users.cs.fiu.edu/~weiss/dsaajava2/code/SeparateChainingHashTable.java
  */
 public class SeparateChainingHashTable<T> {
 
     private static final int DEFAULT_TABLE_SIZE = 101;
 
+    //渐进式重新散列时每次操作搬迁的旧表链表数
+    private static final int REHASH_STEP = 4;
+
     private List<T>[] theLists;
+    //元素个数，搬迁期间包括旧表中尚未搬走的元素
     private int currentSize;
 
+    private final boolean incrementalRehash;
+    //正在搬迁的旧表，不在搬迁时为null
+    private List<T>[] oldLists;
+    //旧表中下一个待搬迁的链表
+    private int rehashIndex;
+
     public SeparateChainingHashTable() {
         this(DEFAULT_TABLE_SIZE);
     }
 
-    @SuppressWarnings("unchecked")
     public SeparateChainingHashTable(int size) {
-        theLists = new LinkedList[nextPrime(size)];//使表的大小会素数能够保证一个好的分布
-        for (int i = 0; i < theLists.length; i++) {
-            theLists[i] = new LinkedList<T>();
-        }
+        this(size, false);
+    }
+
+    /**
+     * @param incrementalRehash 是否采用渐进式重新散列
+     */
+    public SeparateChainingHashTable(int size, boolean incrementalRehash) {
+        this.incrementalRehash = incrementalRehash;
+        theLists = allocateLists(nextPrime(size));//使表的大小会素数能够保证一个好的分布
     }
 
     public void insert(T t) {
-        List<T> whichList = theLists[myhash(t)];
-        if (!whichList.contains(t)) { //只有当元素不存在时，才会进行添加
-            whichList.add(t);
-            if (++currentSize > theLists.length) {
-                //当load factor > 1时需要扩大散列表
-                rehash();
-            }
+        rehashStep();
+        if (oldLists != null && contains(oldLists, t)) {
+            return;
+        }
+        int index = myhash(t, theLists.length);
+        List<T> whichList = theLists[index];
+        if (whichList == null) {
+            whichList = theLists[index] = new LinkedList<T>();
+        } else if (whichList.contains(t)) { //只有当元素不存在时，才会进行添加
+            return;
+        }
+        whichList.add(t);
+        if (++currentSize > theLists.length) {
+            //当load factor > 1时需要扩大散列表
+            rehash();
         }
     }
 
     public void remove(T t) {
-        List<T> whichList = theLists[myhash(t)];
-        if (whichList.contains(t)) {
-            whichList.remove(t);
+        rehashStep();
+        if (remove(theLists, t) || (oldLists != null && remove(oldLists, t))) {
             currentSize--;
         }
     }
 
     public boolean contains(T t) {
-        List<T> whichList = theLists[myhash(t)];
-        return whichList.contains(t);
+        rehashStep();
+        return contains(theLists, t) || (oldLists != null && contains(oldLists, t));
     }
 
     public void makeEmpty() {
-        for (int i = 0; i < theLists.length; i++) {
-            theLists[i].clear();
-        }
+        Arrays.fill(theLists, null);
+        oldLists = null;
         currentSize = 0;
     }
 
+    private boolean contains(List<T>[] lists, T t) {
+        List<T> whichList = lists[myhash(t, lists.length)];
+        return whichList != null && whichList.contains(t);
+    }
+
+    private boolean remove(List<T>[] lists, T t) {
+        List<T> whichList = lists[myhash(t, lists.length)];
+        return whichList != null && whichList.remove(t);
+    }
+
     @SuppressWarnings("unchecked")
+    private List<T>[] allocateLists(int size) {
+        return new List[size];
+    }
+
     private void rehash() {
-        List<T>[] oldLists = theLists;
-        theLists = new List[nextPrime(2 * theLists.length)];
-        for (int i = 0; i < theLists.length; i++) {
-            theLists[i] = new LinkedList<T>();
+        if (oldLists != null) {
+            //上一次搬迁尚未完成(正常情况下不会发生)，先把它做完
+            migrate(oldLists.length - rehashIndex);
         }
-        //将容量重置，并把原有元素逐个插入到新散列中
-        currentSize = 0;
-        for (int i = 0; i < oldLists.length; i++) {
-            for (T item : oldLists[i]) {
-                insert(item);
+        List<T>[] previous = theLists;
+        theLists = allocateLists(nextPrime(2 * theLists.length));
+        oldLists = previous;
+        rehashIndex = 0;
+        if (!incrementalRehash) {
+            //一次性把原有元素逐个放入新散列中
+            migrate(previous.length);
+        }
+    }
+
+    private void rehashStep() {
+        if (oldLists != null) {
+            migrate(REHASH_STEP);
+        }
+    }
+
+    /**
+     * 把旧表中从rehashIndex开始的最多count个链表中的元素搬到新表，旧表搬空后丢弃
+     */
+    private void migrate(int count) {
+        int end = Math.min(oldLists.length, rehashIndex + count);
+        for (; rehashIndex < end; rehashIndex++) {
+            List<T> oldList = oldLists[rehashIndex];
+            if (oldList == null) {
+                continue;
+            }
+            //旧表中的元素互不相同且都不在新表中，不需要再检查是否重复
+            for (T item : oldList) {
+                int index = myhash(item, theLists.length);
+                if (theLists[index] == null) {
+                    theLists[index] = new LinkedList<T>();
+                }
+                theLists[index].add(item);
             }
+            oldLists[rehashIndex] = null;
+        }
+        if (rehashIndex == oldLists.length) {
+            oldLists = null;
         }
     }
 
-    private int myhash(T t) {
+    private int myhash(T t, int tableSize) {
         int hashVal = t.hashCode();
-        hashVal %= theLists.length;
+        hashVal %= tableSize;
         if (hashVal < 0) {
-            hashVal += theLists.length;
+            hashVal += tableSize;
         }
         return hashVal;
     }
@@ -48,7 +48,7 @@ public class BinaryHeap<T extends Comparable<? super T>> {
         if (currentSize == array.length - 1) {
             enlargeArray(currentSize * 2 + 1);
         }
-        int hole = currentSize++;
+        int hole = ++currentSize;
         //Percolate up
         while (hole > 1 && x.compareTo(array[hole / 2]) < 0) {
             array[hole] = array[hole / 2];